@@ -0,0 +1,61 @@
+package com.study.springtx;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 벤치마크용 스프링 컨텍스트 (인메모리 H2, 웹 서버와 로그 출력 없음)
+ */
+public abstract class BenchmarkContext {
+
+    private static final String[] QUIET = {
+            "--logging.level.root=WARN",
+            "--logging.level.com.study.springtx=WARN",
+            "--logging.level.org.springframework.transaction.interceptor=WARN",
+            "--logging.level.org.springframework.jdbc.datasource.DataSourceTransactionManager=WARN",
+            "--logging.level.org.springframework.orm.jpa.JpaTransactionManager=WARN",
+            "--logging.level.com.study.springtx.tx.SavepointJpaTransactionManager=WARN",
+            "--logging.level.org.hibernate.resource.transaction=WARN",
+            "--logging.level.org.hibernate.SQL=WARN",
+            "--spring.main.banner-mode=off",
+            "--springtx.member.cache.enabled=false"
+    };
+
+    private BenchmarkContext() {
+    }
+
+    public static ConfigurableApplicationContext start(Class<?>... beans) {
+        return start(beans, new String[0]);
+    }
+
+    public static ConfigurableApplicationContext start(Class<?>[] beans, String... args) {
+        List<Class<?>> sources = new ArrayList<>();
+        sources.add(SpringtxApplication.class);
+        sources.addAll(Arrays.asList(beans));
+
+        // 같은 설정은 args 가 QUIET 를 덮어쓴다.
+        Map<String, String> allArgs = new LinkedHashMap<>();
+        for (String arg : QUIET) {
+            allArgs.put(key(arg), arg);
+        }
+        for (String arg : args) {
+            allArgs.put(key(arg), arg);
+        }
+
+        return new SpringApplicationBuilder(sources.toArray(new Class<?>[0]))
+                .web(WebApplicationType.NONE)
+                .run(allArgs.values().toArray(new String[0]));
+    }
+
+    private static String key(String arg) {
+        int separator = arg.indexOf('=');
+        return separator < 0 ? arg : arg.substring(0, separator);
+    }
+}
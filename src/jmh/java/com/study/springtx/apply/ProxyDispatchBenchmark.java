@@ -0,0 +1,73 @@
+package com.study.springtx.apply;
+
+import com.study.springtx.BenchmarkContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * InternalCallV1Test / V2Test 의 호출 비용
+ * - plain: 트랜잭션 없는 메서드 호출 (프록시는 통과하지만 트랜잭션 적용 대상 아님)
+ * - internalCall: 내부 호출이라 @Transactional 이 적용되지 않는 경우 (V1)
+ * - transactional: 프록시를 통해 트랜잭션이 적용되는 경우 (V2)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ProxyDispatchBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private CallService callService;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start(CallService.class);
+        callService = context.getBean(CallService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public boolean plain() {
+        return callService.nonTx();
+    }
+
+    @Benchmark
+    public boolean internalCall() {
+        return callService.external();
+    }
+
+    @Benchmark
+    public boolean transactional() {
+        return callService.internal();
+    }
+
+    public static class CallService {
+
+        public boolean nonTx() {
+            return TransactionSynchronizationManager.isActualTransactionActive();
+        }
+
+        public boolean external() {
+            return internal();
+        }
+
+        @Transactional
+        public boolean internal() {
+            return TransactionSynchronizationManager.isActualTransactionActive();
+        }
+    }
+}
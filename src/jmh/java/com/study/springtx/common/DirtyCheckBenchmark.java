@@ -0,0 +1,112 @@
+package com.study.springtx.common;
+
+import com.study.springtx.BenchmarkContext;
+import com.study.springtx.propagation.Member;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 영속성 컨텍스트에 엔티티 10,000 개가 있을 때 flush 비용
+ * - flush: 1 개만 변경하고 flush (변경 감지 시간만 측정)
+ * - readWriteTx: 전체 조회 + 1 개 변경 + 커밋 (gc.alloc.rate.norm = 트랜잭션당 힙 할당)
+ * - readOnlyTx: readOnly 트랜잭션으로 전체 조회 (스냅샷 없음, flush 없음)
+ * 바이트코드 향상 전후 비교: ./gradlew jmh -PnoEnhance 와 ./gradlew jmh 결과를 비교
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class DirtyCheckBenchmark {
+
+    @Param({"10000"})
+    public int entities;
+
+    private ConfigurableApplicationContext context;
+    private EntityManagerFactory emf;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+
+    private EntityManager em;
+    private long version;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start();
+        emf = context.getBean(EntityManagerFactory.class);
+        PlatformTransactionManager txManager = context.getBean(PlatformTransactionManager.class);
+        readWrite = new TransactionTemplate(txManager);
+        readOnly = new TransactionTemplate(txManager);
+        readOnly.setReadOnly(true);
+
+        EntityManager setupEm = emf.createEntityManager();
+        setupEm.getTransaction().begin();
+        for (int i = 0; i < entities; i++) {
+            setupEm.persist(new Member("dirty_" + i));
+            if (i % 1000 == 999) {
+                setupEm.flush();
+                setupEm.clear();
+            }
+        }
+        setupEm.getTransaction().commit();
+        setupEm.close();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    // flush 전까지의 준비(조회, 변경)는 측정에서 제외
+    @Setup(Level.Invocation)
+    public void loadManagedEntities() {
+        em = emf.createEntityManager();
+        em.getTransaction().begin();
+        List<Member> members = loadAll(em);
+        members.get(0).setUsername("dirty_changed");
+    }
+
+    @TearDown(Level.Invocation)
+    public void discardManagedEntities() {
+        em.getTransaction().rollback();
+        em.close();
+    }
+
+    @Benchmark
+    public void flush() {
+        em.flush();
+    }
+
+    @Benchmark
+    public Integer readWriteTx() {
+        return readWrite.execute(status -> {
+            List<Member> members = loadAll(EntityManagerFactoryUtils.getTransactionalEntityManager(emf));
+            members.get(0).setUsername("dirty_" + (++version));
+            return members.size();
+        });
+    }
+
+    @Benchmark
+    public Integer readOnlyTx() {
+        return readOnly.execute(status -> loadAll(EntityManagerFactoryUtils.getTransactionalEntityManager(emf)).size());
+    }
+
+    private List<Member> loadAll(EntityManager em) {
+        return em.createQuery("select m from Member m", Member.class).getResultList();
+    }
+}
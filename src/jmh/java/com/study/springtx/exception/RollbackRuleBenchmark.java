@@ -0,0 +1,67 @@
+package com.study.springtx.exception;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.transaction.interceptor.RollbackRuleAttribute;
+import org.springframework.transaction.interceptor.RuleBasedTransactionAttribute;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RollbackTest 의 롤백 규칙 판단 비용
+ * - 기본 규칙: 런타임 예외는 롤백, 체크 예외는 커밋
+ * - rollbackFor 규칙: 예외 클래스 계층을 따라 올라가며 규칙을 찾는다.
+ * - *WithNewException: 예외 생성(스택 트레이스 채우기) 비용까지 포함
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RollbackRuleBenchmark {
+
+    private final RuleBasedTransactionAttribute defaultRules = new RuleBasedTransactionAttribute();
+    private final RuleBasedTransactionAttribute rollbackForRules = new RuleBasedTransactionAttribute();
+
+    private final Exception checked = new MyException();
+    private final RuntimeException runtime = new RuntimeException();
+
+    {
+        rollbackForRules.setRollbackRules(Collections.singletonList(new RollbackRuleAttribute(MyException.class)));
+    }
+
+    @Benchmark
+    public boolean checkedDefault() {
+        return defaultRules.rollbackOn(checked);
+    }
+
+    @Benchmark
+    public boolean runtimeDefault() {
+        return defaultRules.rollbackOn(runtime);
+    }
+
+    @Benchmark
+    public boolean checkedRollbackFor() {
+        return rollbackForRules.rollbackOn(checked);
+    }
+
+    @Benchmark
+    public boolean runtimeRollbackFor() {
+        return rollbackForRules.rollbackOn(runtime);
+    }
+
+    @Benchmark
+    public boolean checkedWithNewException() {
+        return defaultRules.rollbackOn(new MyException());
+    }
+
+    @Benchmark
+    public boolean runtimeWithNewException() {
+        return defaultRules.rollbackOn(new RuntimeException());
+    }
+
+    static class MyException extends Exception {}
+}
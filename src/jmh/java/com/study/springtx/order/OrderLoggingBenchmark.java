@@ -0,0 +1,79 @@
+package com.study.springtx.order;
+
+import com.study.springtx.BenchmarkContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 로그 설정에 따른 주문 처리량 (4 쓰레드)
+ * - off: 애플리케이션/트랜잭션 로그 없음 (WARN)
+ * - sync: 기존 설정(INFO, 인터셉터 TRACE, JPA 트랜잭션 DEBUG)을 콘솔에 동기 출력
+ * - async: 같은 로그를 AsyncAppender 로 출력
+ * - asyncSampled: async + 트랜잭션 10% 샘플링
+ * sync 와 async 의 차이는 레이아웃 포맷과 콘솔 I/O 를 옮긴 효과만 보여준다.
+ * 메시지 인자 치환은 async 에서도 주문 쓰레드에서 하므로, 그 비용은 asyncSampled 와 비교해서 본다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(4)
+public class OrderLoggingBenchmark {
+
+    private static final String[] LOGGING_ON = {
+            "--logging.level.com.study.springtx=INFO",
+            "--logging.level.org.springframework.transaction.interceptor=TRACE",
+            "--logging.level.org.springframework.orm.jpa.JpaTransactionManager=DEBUG",
+            "--logging.level.com.study.springtx.tx.SavepointJpaTransactionManager=DEBUG",
+            "--logging.level.org.hibernate.SQL=DEBUG"
+    };
+
+    @Param({"off", "sync", "async", "asyncSampled"})
+    public String logging;
+
+    private ConfigurableApplicationContext context;
+    private OrderService orderService;
+
+    @Setup
+    public void setUp() {
+        List<String> args = new ArrayList<>();
+        if (!logging.equals("off")) {
+            args.addAll(Arrays.asList(LOGGING_ON));
+        }
+        if (logging.equals("sync")) {
+            args.add("--spring.profiles.active=sync-logging");
+        }
+        if (logging.equals("asyncSampled")) {
+            args.add("--springtx.logging.sample-rate=0.1");
+            args.add("--springtx.logging.tx-sample-rate=0.1");
+            args.add("--springtx.logging.sql-sample-rate=0.1");
+        }
+        context = BenchmarkContext.start(new Class<?>[0], args.toArray(new String[0]));
+        orderService = context.getBean(OrderService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public OrderResult placeOrder() {
+        Order order = new Order();
+        order.setUsername("정상");
+        return orderService.placeOrder(order);
+    }
+}
@@ -0,0 +1,82 @@
+package com.study.springtx.order;
+
+import com.study.springtx.BenchmarkContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 잔고 부족 비율(기본 30%)에 따른 주문 처리량
+ * - throwingApi: order() 가 NotEnoughMoneyException 을 던지고 호출자가 잡는다. (TransactionInterceptor 롤백 규칙 판단 포함)
+ * - throwingApiWithStackTrace: 잔고 부족마다 스택 트레이스를 채운 새 예외를 만드는 기존 방식의 비용을 더한다.
+ * - outcomeApi: placeOrder() 가 예외 없이 결과를 반환한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class OrderOutcomeBenchmark {
+
+    private static final int SIZE = 100;
+
+    @Param({"30"})
+    public int insufficientFundsPercent;
+
+    private ConfigurableApplicationContext context;
+    private OrderService orderService;
+    private String[] usernames;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start();
+        orderService = context.getBean(OrderService.class);
+        usernames = new String[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            usernames[i] = i % 100 < insufficientFundsPercent ? "잔고부족" : "정상";
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void throwingApi(Blackhole blackhole) {
+        try {
+            orderService.order(nextOrder());
+        } catch (NotEnoughMoneyException e) {
+            blackhole.consume(e);
+        }
+    }
+
+    @Benchmark
+    public void throwingApiWithStackTrace(Blackhole blackhole) {
+        try {
+            orderService.order(nextOrder());
+        } catch (NotEnoughMoneyException e) {
+            blackhole.consume(new NotEnoughMoneyException(e.getMessage()));
+        }
+    }
+
+    @Benchmark
+    public OrderResult outcomeApi() {
+        return orderService.placeOrder(nextOrder());
+    }
+
+    private Order nextOrder() {
+        Order order = new Order();
+        order.setUsername(usernames[index++ % SIZE]);
+        return order;
+    }
+}
@@ -0,0 +1,75 @@
+package com.study.springtx.propagation;
+
+import com.study.springtx.BenchmarkContext;
+import com.study.springtx.tx.DelegatingTransactionManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.interceptor.DefaultTransactionAttribute;
+
+import javax.sql.DataSource;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BasicTxTest 의 txManager.getTransaction / commit 왕복 비용
+ * - JDBC(DataSourceTransactionManager) vs JPA(JpaTransactionManager), 메트릭/추적 데코레이터 유무
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BasicTxBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private PlatformTransactionManager jdbcTxManager;
+    private PlatformTransactionManager jpaTxManager;
+    private PlatformTransactionManager rawJpaTxManager;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start();
+        jdbcTxManager = new DataSourceTransactionManager(context.getBean(DataSource.class));
+        jpaTxManager = context.getBean(PlatformTransactionManager.class);
+        rawJpaTxManager = jpaTxManager;
+        while (rawJpaTxManager instanceof DelegatingTransactionManager) {
+            rawJpaTxManager = ((DelegatingTransactionManager) rawJpaTxManager).getDelegate();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void jdbcCommit() {
+        TransactionStatus status = jdbcTxManager.getTransaction(new DefaultTransactionAttribute());
+        jdbcTxManager.commit(status);
+    }
+
+    @Benchmark
+    public void jdbcRollback() {
+        TransactionStatus status = jdbcTxManager.getTransaction(new DefaultTransactionAttribute());
+        jdbcTxManager.rollback(status);
+    }
+
+    @Benchmark
+    public void jpaCommit() {
+        TransactionStatus status = jpaTxManager.getTransaction(new DefaultTransactionAttribute());
+        jpaTxManager.commit(status);
+    }
+
+    @Benchmark
+    public void jpaCommitWithoutDecorators() {
+        TransactionStatus status = rawJpaTxManager.getTransaction(new DefaultTransactionAttribute());
+        rawJpaTxManager.commit(status);
+    }
+}
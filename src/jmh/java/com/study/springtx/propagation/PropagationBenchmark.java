@@ -0,0 +1,102 @@
+package com.study.springtx.propagation;
+
+import com.study.springtx.BenchmarkContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * MemberServiceTest 의 외부 트랜잭션 안에서 회원/로그 저장
+ * - REQUIRED: 로그 저장이 외부 물리 트랜잭션에 참여 (커넥션 1개)
+ * - REQUIRES_NEW: 로그 저장이 별도 물리 트랜잭션 (커넥션 2개, 커밋 2번)
+ * - NESTED: 로그 저장 전후로 savepoint 생성/해제 (커넥션 1개, 커밋 1번)
+ * - nestedRollback/requiresNewRollback: 로그 저장이 실패하고 회원만 커밋 (MemberServiceTest 의 복구 시나리오)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PropagationBenchmark {
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private ConfigurableApplicationContext context;
+    private MemberRepository memberRepository;
+    private LogRepository logRepository;
+    private TransactionTemplate outer;
+    private TransactionTemplate innerRequired;
+    private TransactionTemplate innerRequiresNew;
+    private TransactionTemplate innerNested;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start();
+        memberRepository = context.getBean(MemberRepository.class);
+        logRepository = context.getBean(LogRepository.class);
+
+        PlatformTransactionManager txManager = context.getBean(PlatformTransactionManager.class);
+        outer = new TransactionTemplate(txManager);
+        innerRequired = new TransactionTemplate(txManager);
+        innerRequiresNew = new TransactionTemplate(txManager);
+        innerRequiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        innerNested = new TransactionTemplate(txManager);
+        innerNested.setPropagationBehavior(TransactionDefinition.PROPAGATION_NESTED);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void required() {
+        join(innerRequired);
+    }
+
+    @Benchmark
+    public void requiresNew() {
+        join(innerRequiresNew);
+    }
+
+    @Benchmark
+    public void nested() {
+        join(innerNested);
+    }
+
+    @Benchmark
+    public void requiresNewRollback() {
+        join(innerRequiresNew, "로그예외_bench_");
+    }
+
+    @Benchmark
+    public void nestedRollback() {
+        join(innerNested, "로그예외_bench_");
+    }
+
+    private void join(TransactionTemplate inner) {
+        join(inner, "bench_");
+    }
+
+    private void join(TransactionTemplate inner, String prefix) {
+        String username = prefix + sequence.incrementAndGet();
+        outer.executeWithoutResult(status -> {
+            memberRepository.save(new Member(username));
+            try {
+                inner.executeWithoutResult(innerStatus -> logRepository.save(new Log(username)));
+            } catch (RuntimeException e) {
+                // 로그 저장 실패는 복구하고 회원은 커밋
+            }
+        });
+    }
+}
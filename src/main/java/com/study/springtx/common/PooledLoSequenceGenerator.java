@@ -0,0 +1,36 @@
+package com.study.springtx.common;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.config.spi.StandardConverters;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.id.enhanced.StandardOptimizerDescriptor;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Properties;
+
+/**
+ * 엔티티 공용 pooled-lo 시퀀스 ID 생성기
+ * - 엔티티마다 {엔티티명}_SEQ 시퀀스를 사용하고, 시퀀스 한 번 호출로 allocation size 만큼의 ID를 미리 확보한다.
+ * - allocation size 는 hibernate 설정(springtx.id.allocation_size)으로 변경할 수 있다. (기본 50)
+ */
+public class PooledLoSequenceGenerator extends SequenceStyleGenerator {
+
+    public static final String NAME = "pooled_lo";
+    public static final String STRATEGY = "com.study.springtx.common.PooledLoSequenceGenerator";
+
+    public static final String ALLOCATION_SIZE_SETTING = "springtx.id.allocation_size";
+    public static final int DEFAULT_ALLOCATION_SIZE = 50;
+
+    @Override
+    public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) throws MappingException {
+        Integer allocationSize = serviceRegistry.getService(ConfigurationService.class)
+                .getSetting(ALLOCATION_SIZE_SETTING, StandardConverters.INTEGER, DEFAULT_ALLOCATION_SIZE);
+
+        params.putIfAbsent(OPT_PARAM, StandardOptimizerDescriptor.POOLED_LO.getExternalName());
+        params.putIfAbsent(INCREMENT_PARAM, String.valueOf(allocationSize));
+        params.putIfAbsent(CONFIG_PREFER_SEQUENCE_PER_ENTITY, "true");
+        super.configure(type, params, serviceRegistry);
+    }
+}
@@ -0,0 +1,13 @@
+package com.study.springtx.datasource;
+
+import java.sql.SQLTransientConnectionException;
+
+/**
+ * 커넥션을 가진 쓰레드가 추가 커넥션을 요청했지만 추가 커넥션 전용 풀에서도 제한 시간 안에 얻지 못한 상태
+ */
+public class ConnectionStarvationException extends SQLTransientConnectionException {
+
+    public ConnectionStarvationException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,24 @@
+package com.study.springtx.datasource;
+
+import com.study.springtx.tx.TxProperties;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+@Configuration
+public class DataSourceConfig {
+
+    // Deadline 의 query timeout 계층은 트랜잭션 timeout 과 같은 스위치(springtx.tx.deadline.enabled)로 켠다.
+    @Bean
+    public static DataSourcePostProcessor dataSourcePostProcessor(Environment environment) {
+        Binder binder = Binder.get(environment);
+        DataSourceLayerProperties properties = binder
+                .bind(DataSourceLayerProperties.PREFIX, DataSourceLayerProperties.class)
+                .orElseGet(DataSourceLayerProperties::new);
+        TxProperties txProperties = binder
+                .bind(TxProperties.PREFIX, TxProperties.class)
+                .orElseGet(TxProperties::new);
+        return new DataSourcePostProcessor(properties, txProperties.getDeadline().isEnabled());
+    }
+}
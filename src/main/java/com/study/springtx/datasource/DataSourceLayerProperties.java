@@ -0,0 +1,38 @@
+package com.study.springtx.datasource;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Duration;
+
+/**
+ * DataSource 를 감싸는 계층 설정 (springtx.datasource.*)
+ * - BeanPostProcessor 에서 사용하므로 @ConfigurationProperties 빈이 아니라 Binder 로 직접 바인딩한다.
+ */
+@Getter
+@Setter
+public class DataSourceLayerProperties {
+
+    public static final String PREFIX = "springtx.datasource";
+
+    // true 면 실제 커넥션을 첫 SQL 실행 시점에 획득한다. (라우팅 사용 시에는 항상 적용)
+    private boolean lazyConnection = false;
+
+    // true 면 rollback-only 로 표시된 트랜잭션의 SQL 실행을 바로 실패시킨다. (TransactionRollbackOnlyException)
+    private boolean failFastRollbackOnly = false;
+
+    private final Bulkhead bulkhead = new Bulkhead();
+
+    @Getter
+    @Setter
+    public static class Bulkhead {
+        // true 면 이미 커넥션을 가진 쓰레드의 추가 커넥션 요청(REQUIRES_NEW 등)을 별도 풀에서 꺼낸다.
+        private boolean enabled = false;
+
+        // 추가 커넥션 전용 풀 크기 (1 이상)
+        private int nestedPoolSize = 2;
+
+        // 추가 커넥션 전용 풀이 모두 사용 중일 때 기다리는 최대 시간. 넘으면 ConnectionStarvationException
+        private Duration nestedConnectionTimeout = Duration.ofSeconds(1);
+    }
+}
@@ -0,0 +1,83 @@
+package com.study.springtx.datasource;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 등록된 DataSource 를 설정에 따라 감싼다. (풀 -> bulkhead -> failFastRollbackOnly -> deadlineStatementTimeout -> lazyConnection 순서)
+ * - bulkhead: 이미 커넥션을 가진 쓰레드의 추가 커넥션 요청(REQUIRES_NEW)을 별도 풀로 보낸다.
+ *   물리 커넥션 수를 세야 하므로 내부에서 지연 커넥션을 쓰는 라우팅 DataSource 에는 적용할 수 없다.
+ * - failFastRollbackOnly: 이미 rollback-only 인 트랜잭션에서 Statement 를 만들면 커밋 시점까지 기다리지 않고 바로 실패한다.
+ * - deadlineStatementTimeout: Deadline 범위 안의 SQL 은 실행 시점의 남은 시간을 query timeout 으로 사용한다.
+ *   트랜잭션 밖의 SQL 과 트랜잭션 timeout 을 정한 뒤의 SQL 도 포함하도록 springtx.tx.deadline.enabled 와 함께 켜진다.
+ * - lazyConnection: 트랜잭션 시작 시점이 아니라 첫 SQL 실행 시점에 풀에서 커넥션을 꺼낸다.
+ *   readOnly, 격리 수준, autoCommit 설정은 기록해 두었다가 실제 커넥션을 얻을 때 적용한다.
+ *   SQL 을 실행하지 않는 트랜잭션은 커넥션을 사용하지 않는다.
+ */
+public class DataSourcePostProcessor implements BeanPostProcessor, Ordered, DisposableBean {
+
+    private final DataSourceLayerProperties properties;
+    private final boolean deadlineStatementTimeout;
+    private final List<AutoCloseable> created = new ArrayList<>();
+
+    public DataSourcePostProcessor(DataSourceLayerProperties properties, boolean deadlineStatementTimeout) {
+        this.properties = properties;
+        this.deadlineStatementTimeout = deadlineStatementTimeout;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DataSource) || bean instanceof LazyConnectionDataSourceProxy) {
+            return bean;
+        }
+        DataSource dataSource = (DataSource) bean;
+        if (properties.getBulkhead().isEnabled()) {
+            if (isLazy(dataSource)) {
+                throw new IllegalStateException("라우팅 DataSource 에는 bulkhead 를 적용할 수 없습니다. "
+                        + "springtx.datasource.bulkhead.enabled 와 springtx.datasource.routing.enabled 를 함께 켤 수 없습니다.");
+            }
+            NestedConnectionBulkheadDataSource bulkhead = new NestedConnectionBulkheadDataSource(dataSource,
+                    properties.getBulkhead().getNestedPoolSize(), properties.getBulkhead().getNestedConnectionTimeout());
+            created.add(bulkhead);
+            dataSource = bulkhead;
+        }
+        if (properties.isFailFastRollbackOnly()) {
+            dataSource = new RollbackOnlyFailFastDataSource(dataSource);
+        }
+        if (deadlineStatementTimeout) {
+            dataSource = new DeadlineStatementTimeoutDataSource(dataSource);
+        }
+        if (properties.isLazyConnection() && !isLazy(dataSource)) {
+            dataSource = new LazyConnectionDataSourceProxy(dataSource);
+        }
+        return dataSource;
+    }
+
+    // 라우팅 DataSource 는 내부에서 이미 LazyConnectionDataSourceProxy 를 사용한다.
+    private boolean isLazy(DataSource dataSource) {
+        try {
+            return dataSource.isWrapperFor(ReadWriteRoutingDataSource.class);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        for (AutoCloseable closeable : created) {
+            closeable.close();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.study.springtx.datasource;
+
+import com.study.springtx.tx.Deadline;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+
+/**
+ * 요청의 남은 시간 예산(Deadline)을 모든 SQL 의 query timeout 으로 적용
+ * - 트랜잭션 timeout 은 트랜잭션 시작 시점에 정해지고 트랜잭션 밖의 SQL 에는 적용되지 않는다.
+ *   이 계층은 SQL 을 실행하는 시점의 남은 시간으로 timeout 을 다시 줄인다. (이미 더 짧으면 유지)
+ * - 예산을 다 쓴 뒤의 SQL 은 실행하지 않고 SQLTimeoutException 을 던진다. (스프링에서 QueryTimeoutException 으로 변환)
+ * - Deadline 범위 밖에서 만든 Statement 는 감싸지 않는다.
+ */
+public class DeadlineStatementTimeoutDataSource extends DelegatingDataSource {
+
+    public DeadlineStatementTimeoutDataSource(DataSource target) {
+        super(target);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrapConnection(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrapConnection(super.getConnection(username, password));
+    }
+
+    private Connection wrapConnection(Connection target) {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    Object result = invoke(target, method, args);
+                    if (result instanceof Statement && Deadline.current() != null) {
+                        return wrapStatement((Statement) result, method.getReturnType());
+                    }
+                    return result;
+                });
+    }
+
+    private Object wrapStatement(Statement target, Class<?> statementType) {
+        return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{statementType},
+                (proxy, method, args) -> {
+                    if (method.getName().startsWith("execute")) {
+                        applyDeadline(target);
+                    }
+                    return invoke(target, method, args);
+                });
+    }
+
+    private static void applyDeadline(Statement statement) throws SQLException {
+        Deadline deadline = Deadline.current();
+        if (deadline == null) {
+            return;
+        }
+        int remainingSeconds = deadline.remainingSeconds();
+        if (remainingSeconds == 0) {
+            throw new SQLTimeoutException("요청 시간 예산(deadline)을 모두 사용해서 SQL 을 실행하지 않습니다.");
+        }
+        int queryTimeout = statement.getQueryTimeout();
+        if (queryTimeout == 0 || remainingSeconds < queryTimeout) {
+            statement.setQueryTimeout(remainingSeconds);
+        }
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.study.springtx.datasource;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * REQUIRES_NEW 로 인한 커넥션 풀 고갈(교착 상태) 방지
+ * - 외부 트랜잭션이 커넥션을 가진 채로 내부 트랜잭션(REQUIRES_NEW)이 커넥션을 하나 더 요청하면,
+ *   풀 크기만큼의 쓰레드가 동시에 이 상황에 빠졌을 때 아무도 커넥션을 반납하지 않아 풀 타임아웃까지 멈춘다.
+ * - 이미 커넥션을 가진 쓰레드의 추가 요청은 항상 별도 풀(bulkhead)에서 꺼낸다. 기본 풀에서는 교착 상태가 생기지 않는다.
+ * - 별도 풀도 모두 사용 중이면 nestedConnectionTimeout 만 기다리고 ConnectionStarvationException 을 던진다.
+ * - 물리 커넥션을 직접 주는 DataSource 를 감싸야 한다. (LazyConnectionDataSourceProxy 는 이 계층 바깥에 둔다)
+ */
+public class NestedConnectionBulkheadDataSource extends DelegatingDataSource implements AutoCloseable {
+
+    private final ThreadLocal<AtomicInteger> heldConnections = ThreadLocal.withInitial(AtomicInteger::new);
+
+    private final DataSource nestedPool;
+
+    public NestedConnectionBulkheadDataSource(DataSource target, int nestedPoolSize, Duration nestedConnectionTimeout) {
+        this(target, createNestedPool(target, nestedPoolSize, nestedConnectionTimeout));
+    }
+
+    NestedConnectionBulkheadDataSource(DataSource target, DataSource nestedPool) {
+        super(target);
+        this.nestedPool = nestedPool;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        AtomicInteger held = heldConnections.get();
+        if (held.get() == 0) {
+            return track(super.getConnection(), held);
+        }
+        try {
+            return track(nestedPool.getConnection(), held);
+        } catch (SQLTransientConnectionException e) {
+            throw starvation(e);
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        AtomicInteger held = heldConnections.get();
+        if (held.get() == 0) {
+            return track(super.getConnection(username, password), held);
+        }
+        try {
+            return track(nestedPool.getConnection(username, password), held);
+        } catch (SQLTransientConnectionException e) {
+            throw starvation(e);
+        }
+    }
+
+    private static ConnectionStarvationException starvation(SQLTransientConnectionException cause) {
+        return new ConnectionStarvationException("추가 커넥션(REQUIRES_NEW) 전용 풀의 커넥션을 모두 사용 중입니다. "
+                + "springtx.datasource.bulkhead.nested-pool-size 를 늘리거나 REQUIRES_NEW 중첩을 줄여야 합니다.", cause);
+    }
+
+    private Connection track(Connection target, AtomicInteger held) {
+        held.incrementAndGet();
+        AtomicBoolean closed = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("close") && closed.compareAndSet(false, true)) {
+                        held.decrementAndGet();
+                    }
+                    try {
+                        return method.invoke(target, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+
+    private static HikariDataSource createNestedPool(DataSource target, int size, Duration connectionTimeout) {
+        if (size < 1) {
+            throw new IllegalArgumentException("nestedPoolSize 는 1 이상이어야 합니다. nestedPoolSize=" + size);
+        }
+        HikariDataSource mainPool = unwrapHikari(target);
+        if (mainPool == null) {
+            throw new IllegalStateException("Hikari 풀이 아니어서 추가 커넥션 전용 풀을 만들 수 없습니다. dataSource=" + target);
+        }
+        HikariConfig config = new HikariConfig();
+        mainPool.copyStateTo(config);
+        String poolName = mainPool.getPoolName() == null ? "HikariPool" : mainPool.getPoolName();
+        config.setPoolName(poolName + "-nested");
+        config.setMaximumPoolSize(size);
+        config.setMinimumIdle(0);
+        config.setConnectionTimeout(connectionTimeout.toMillis());
+        return new HikariDataSource(config);
+    }
+
+    private static HikariDataSource unwrapHikari(DataSource dataSource) {
+        try {
+            return dataSource.isWrapperFor(HikariDataSource.class) ? dataSource.unwrap(HikariDataSource.class) : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (nestedPool instanceof AutoCloseable) {
+            ((AutoCloseable) nestedPool).close();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.study.springtx.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * readOnly 트랜잭션은 replica, 그 외에는 primary 로 보내는 DataSource
+ * - 트랜잭션 시작(doBegin) 시점에는 아직 readOnly 여부가 TransactionSynchronizationManager 에 등록되지 않는다.
+ * - 그래서 LazyConnectionDataSourceProxy 로 감싸서 첫 SQL 실행 시점에 실제 커넥션을 고르도록 한다.
+ */
+public class ReadWriteRoutingDataSource extends DelegatingDataSource implements AutoCloseable {
+
+    private final HikariDataSource primary;
+    private final HikariDataSource replica;
+
+    public ReadWriteRoutingDataSource(HikariDataSource primary, HikariDataSource replica) {
+        this.primary = primary;
+        this.replica = replica;
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(DataSourceType.PRIMARY, primary);
+        targets.put(DataSourceType.REPLICA, replica);
+
+        AbstractRoutingDataSource routing = new AbstractRoutingDataSource() {
+            @Override
+            protected Object determineCurrentLookupKey() {
+                return currentDataSourceType();
+            }
+        };
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(primary);
+        routing.afterPropertiesSet();
+
+        setTargetDataSource(new LazyConnectionDataSourceProxy(routing));
+    }
+
+    public static DataSourceType currentDataSourceType() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                ? DataSourceType.REPLICA
+                : DataSourceType.PRIMARY;
+    }
+
+    @Override
+    public void close() {
+        replica.close();
+        primary.close();
+    }
+
+    public enum DataSourceType {
+        PRIMARY, REPLICA
+    }
+}
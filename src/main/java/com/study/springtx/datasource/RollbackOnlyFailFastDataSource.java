@@ -0,0 +1,53 @@
+package com.study.springtx.datasource;
+
+import com.study.springtx.tx.RollbackOnlyTransactions;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * rollback-only 로 표시된 트랜잭션의 SQL 실행을 바로 실패시킨다.
+ * - 커넥션에서 Statement 를 만들 때(createStatement, prepareStatement, prepareCall) 트랜잭션 상태를 확인하고
+ *   TransactionRollbackOnlyException 을 던진다. 어차피 롤백될 쿼리로 DB 시간과 커넥션 점유 시간을 쓰지 않는다.
+ * - 커밋/롤백/savepoint 는 Statement 를 만들지 않으므로 영향이 없다.
+ * - 트랜잭션 밖이나 REQUIRES_NEW 로 새로 시작한 트랜잭션은 자기 리소스만 보므로 실행된다.
+ */
+public class RollbackOnlyFailFastDataSource extends DelegatingDataSource {
+
+    public RollbackOnlyFailFastDataSource(DataSource target) {
+        super(target);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return guard(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return guard(super.getConnection(username, password));
+    }
+
+    private Connection guard(Connection target) {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if (createsStatement(method.getName())) {
+                        RollbackOnlyTransactions.failIfRollbackOnly();
+                    }
+                    try {
+                        return method.invoke(target, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+
+    private static boolean createsStatement(String methodName) {
+        return methodName.equals("prepareStatement") || methodName.equals("createStatement")
+                || methodName.equals("prepareCall");
+    }
+}
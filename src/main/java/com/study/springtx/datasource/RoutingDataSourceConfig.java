@@ -0,0 +1,45 @@
+package com.study.springtx.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * primary / replica 라우팅 DataSource 설정
+ * - primary 는 spring.datasource.*, replica 는 springtx.datasource.routing.replica.* 를 사용한다.
+ * - 이 빈이 등록되면 스프링 부트의 기본 DataSource 자동 설정은 적용되지 않는다.
+ */
+@Configuration
+@ConditionalOnProperty(name = "springtx.datasource.routing.enabled", havingValue = "true")
+public class RoutingDataSourceConfig {
+
+    @Bean
+    public ReadWriteRoutingDataSource dataSource(DataSourceProperties dataSourceProperties,
+                                                 RoutingDataSourceProperties properties,
+                                                 Environment environment) {
+        HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        primary.setPoolName("primary");
+
+        RoutingDataSourceProperties.Replica replicaProperties = properties.getReplica();
+        HikariDataSource replica = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(replicaProperties.getUrl())
+                .username(replicaProperties.getUsername())
+                .password(replicaProperties.getPassword())
+                .build();
+        replica.setPoolName("replica");
+        replica.setReadOnly(true);
+        replica.setMaximumPoolSize(replicaProperties.getMaximumPoolSize());
+
+        return new ReadWriteRoutingDataSource(primary, replica);
+    }
+}
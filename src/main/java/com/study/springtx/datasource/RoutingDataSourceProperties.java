@@ -0,0 +1,25 @@
+package com.study.springtx.datasource;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties("springtx.datasource.routing")
+public class RoutingDataSourceProperties {
+
+    // true 면 readOnly 트랜잭션은 replica, 나머지는 primary(spring.datasource.*) 로 보낸다.
+    private boolean enabled = false;
+
+    private final Replica replica = new Replica();
+
+    @Getter
+    @Setter
+    public static class Replica {
+        private String url;
+        private String username = "sa";
+        private String password = "";
+        private int maximumPoolSize = 10;
+    }
+}
@@ -0,0 +1,50 @@
+package com.study.springtx.export;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * GET /export/orders?format=ndjson|csv
+ * GET /export/logs?format=ndjson|csv
+ */
+@RestController
+@RequestMapping("/export")
+@RequiredArgsConstructor
+public class ExportController {
+
+    private final ExportService exportService;
+
+    @GetMapping("/orders")
+    public ResponseEntity<StreamingResponseBody> orders(@RequestParam(defaultValue = "ndjson") String format) {
+        ExportFormat exportFormat = parse(format);
+        return stream(exportFormat, out -> exportService.exportOrders(exportFormat, out));
+    }
+
+    @GetMapping("/logs")
+    public ResponseEntity<StreamingResponseBody> logs(@RequestParam(defaultValue = "ndjson") String format) {
+        ExportFormat exportFormat = parse(format);
+        return stream(exportFormat, out -> exportService.exportLogs(exportFormat, out));
+    }
+
+    private ExportFormat parse(String format) {
+        try {
+            return ExportFormat.from(format);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    private ResponseEntity<StreamingResponseBody> stream(ExportFormat format, StreamingResponseBody body) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType() + ";charset=UTF-8"))
+                .body(body);
+    }
+}
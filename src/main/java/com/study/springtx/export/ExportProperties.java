@@ -0,0 +1,19 @@
+package com.study.springtx.export;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties("springtx.export")
+public class ExportProperties {
+
+    // JDBC fetch size: 커서에서 한 번에 가져올 행 수 (메모리에 동시에 올라가는 행 수의 상한)
+    private int fetchSize = 500;
+
+    // 내보내기 1 건이 트랜잭션(커넥션)을 잡고 있을 수 있는 최대 시간
+    private Duration timeout = Duration.ofMinutes(5);
+}
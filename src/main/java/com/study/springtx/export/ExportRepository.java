@@ -0,0 +1,42 @@
+package com.study.springtx.export;
+
+import com.study.springtx.order.Order;
+import com.study.springtx.propagation.Log;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.annotations.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import java.util.stream.Stream;
+
+/**
+ * 내보내기 전용 조회
+ * - getResultStream(): 결과를 List 로 만들지 않고 커서(ScrollableResults, FORWARD_ONLY)로 한 행씩 읽는다.
+ * - fetch size 만큼만 드라이버가 미리 가져오고, 읽기 전용이라 스냅샷을 만들지 않는다.
+ * - Stream 은 반드시 트랜잭션 안에서 사용하고 close 해야 커서와 커넥션이 정리된다.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ExportRepository {
+
+    private final EntityManager em;
+
+    public Stream<Order> streamOrders(int fetchSize) {
+        return em.createQuery("select o from Order o order by o.id", Order.class)
+                .setHint(QueryHints.FETCH_SIZE, fetchSize)
+                .setHint(QueryHints.READ_ONLY, true)
+                .getResultStream();
+    }
+
+    public Stream<Log> streamLogs(int fetchSize) {
+        return em.createQuery("select l from Log l order by l.id", Log.class)
+                .setHint(QueryHints.FETCH_SIZE, fetchSize)
+                .setHint(QueryHints.READ_ONLY, true)
+                .getResultStream();
+    }
+
+    // 쓰고 난 행은 영속성 컨텍스트에서 제거 -> 행 수와 무관하게 메모리 사용량이 일정
+    public void detach(Object entity) {
+        em.detach(entity);
+    }
+}
@@ -0,0 +1,203 @@
+package com.study.springtx.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.study.springtx.order.Order;
+import com.study.springtx.propagation.Log;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionTimedOutException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * 주문/로그를 응답 스트림에 바로 쓰는 내보내기
+ * - 읽기 전용 트랜잭션 하나에서 커서로 한 행씩 읽고, 쓰고, detach 한다.
+ * - 느린 클라이언트가 커넥션을 계속 잡지 않도록 timeout 이 지나면 중단하고 롤백한다.
+ *   (트랜잭션 timeout 은 쿼리 실행에만 적용되므로 행마다, 그리고 응답 스트림에 쓰고 flush 하기 전후에 남은 시간을 직접 확인한다.)
+ * - 응답을 받지 않는 클라이언트 때문에 쓰기 자체가 멈추면 서버의 쓰기 timeout(server.tomcat.connection-timeout)이 지나야 실패한다.
+ *   트랜잭션을 잡고 있는 시간은 최대 timeout + 쓰기 timeout 이다.
+ */
+@Slf4j
+@Service
+public class ExportService {
+
+    private static final String[] ORDER_COLUMNS = {"id", "username", "payStatus", "updatedAt"};
+    private static final String[] LOG_COLUMNS = {"id", "message"};
+
+    private final ExportRepository exportRepository;
+    private final ExportProperties properties;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTx;
+
+    public ExportService(ExportRepository exportRepository, ExportProperties properties,
+                         ObjectMapper objectMapper, PlatformTransactionManager transactionManager) {
+        this.exportRepository = exportRepository;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.readOnlyTx.setTimeout((int) Math.max(1, properties.getTimeout().getSeconds()));
+    }
+
+    /**
+     * @return 내보낸 행 수
+     */
+    public long exportOrders(ExportFormat format, OutputStream out) {
+        return export(format, out, ORDER_COLUMNS, exportRepository::streamOrders,
+                order -> new Object[]{order.getId(), order.getUsername(), order.getPayStatus(), order.getUpdatedAt()});
+    }
+
+    public long exportLogs(ExportFormat format, OutputStream out) {
+        return export(format, out, LOG_COLUMNS, exportRepository::streamLogs,
+                logMessage -> new Object[]{logMessage.getId(), logMessage.getMessage()});
+    }
+
+    private <T> long export(ExportFormat format, OutputStream out, String[] columns,
+                            Function<Integer, Stream<T>> query, Function<T, Object[]> values) {
+        long deadline = System.nanoTime() + properties.getTimeout().toNanos();
+        Long count = readOnlyTx.execute(status -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(new DeadlineOutputStream(out, deadline), StandardCharsets.UTF_8));
+            long rows = 0;
+            try (Stream<T> stream = query.apply(properties.getFetchSize())) {
+                RowWriter rowWriter = format == ExportFormat.CSV ? new CsvRowWriter(writer) : new NdjsonRowWriter(writer);
+                rowWriter.header(columns);
+                for (T row : (Iterable<T>) stream::iterator) {
+                    if (System.nanoTime() - deadline > 0) {
+                        throw new TransactionTimedOutException("내보내기 시간 초과 rows=" + rows);
+                    }
+                    rowWriter.write(columns, values.apply(row));
+                    exportRepository.detach(row);
+                    rows++;
+                }
+                writer.flush();
+            } catch (IOException e) {
+                // 클라이언트 연결 종료 등
+                throw new UncheckedIOException(e);
+            }
+            return rows;
+        });
+        log.info("내보내기 완료 format={}, rows={}", format, count);
+        return count;
+    }
+
+    /**
+     * 응답 스트림에 쓰기/flush 하기 전후에 마감 시각을 확인
+     * - 쓰기가 마감 시각을 넘겨서 끝났으면 다음 행을 읽지 않고 바로 중단한다.
+     */
+    private static class DeadlineOutputStream extends FilterOutputStream {
+        private final long deadline;
+
+        DeadlineOutputStream(OutputStream out, long deadline) {
+            super(out);
+            this.deadline = deadline;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            checkDeadline();
+            out.write(b);
+            checkDeadline();
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            checkDeadline();
+            out.write(b, off, len);
+            checkDeadline();
+        }
+
+        @Override
+        public void flush() throws IOException {
+            checkDeadline();
+            out.flush();
+            checkDeadline();
+        }
+
+        private void checkDeadline() {
+            if (System.nanoTime() - deadline > 0) {
+                throw new TransactionTimedOutException("내보내기 시간 초과 (응답 쓰기)");
+            }
+        }
+    }
+
+    private interface RowWriter {
+        void header(String[] columns) throws IOException;
+
+        void write(String[] columns, Object[] values) throws IOException;
+    }
+
+    private class NdjsonRowWriter implements RowWriter {
+        private final Writer writer;
+        private final JsonGenerator generator;
+
+        NdjsonRowWriter(Writer writer) throws IOException {
+            this.writer = writer;
+            this.generator = objectMapper.getFactory().createGenerator(writer);
+            this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            this.generator.disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM); // 행마다 응답으로 flush 하지 않음
+        }
+
+        @Override
+        public void header(String[] columns) {
+        }
+
+        @Override
+        public void write(String[] columns, Object[] values) throws IOException {
+            generator.writeStartObject();
+            for (int i = 0; i < columns.length; i++) {
+                generator.writeFieldName(columns[i]);
+                objectMapper.writeValue(generator, values[i]);
+            }
+            generator.writeEndObject();
+            generator.flush();
+            writer.write('\n');
+        }
+    }
+
+    private static class CsvRowWriter implements RowWriter {
+        private final Writer writer;
+
+        CsvRowWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void header(String[] columns) throws IOException {
+            write(columns, columns);
+        }
+
+        @Override
+        public void write(String[] columns, Object[] values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writer.write(escape(values[i]));
+            }
+            writer.write("\r\n");
+        }
+
+        private String escape(Object value) {
+            if (value == null) {
+                return "";
+            }
+            String text = value.toString();
+            if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+                return text;
+            }
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.study.springtx.order;
+
+/**
+ * 이미 처리한 멱등 키로 다른 내용의 주문이 들어온 경우
+ * - 처음 주문의 결과를 돌려주면 다른 요청에 엉뚱한 응답을 주게 되므로 처리하지 않는다. (OrderController 에서 422)
+ */
+public class IdempotencyKeyMismatchException extends RuntimeException {
+
+    public IdempotencyKeyMismatchException(String message) {
+        super(message);
+    }
+}
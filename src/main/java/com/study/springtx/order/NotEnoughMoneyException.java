@@ -2,7 +2,15 @@ package com.study.springtx.order;
 
 public class NotEnoughMoneyException extends Exception{
 
+    // 잔고 부족은 자주 발생하는 비즈니스 결과이므로, 스택 트레이스 없이 미리 만들어 둔 예외를 재사용한다.
+    public static final NotEnoughMoneyException INSUFFICIENT_BALANCE =
+            new NotEnoughMoneyException("잔고가 부족합니다", false);
+
     public NotEnoughMoneyException(String message) {
         super(message);
     }
+
+    public NotEnoughMoneyException(String message, boolean writableStackTrace) {
+        super(message, null, false, writableStackTrace);
+    }
 }
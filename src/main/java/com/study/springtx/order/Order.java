@@ -1,12 +1,18 @@
 package com.study.springtx.order;
 
+import com.study.springtx.common.PooledLoSequenceGenerator;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.UpdateTimestamp;
 
+import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
 import javax.persistence.Table;
+import javax.persistence.Version;
+import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "orders")
@@ -14,9 +20,23 @@ import javax.persistence.Table;
 @Setter
 public class Order {
 
-    @Id @GeneratedValue
+    @Id
+    @GeneratedValue(generator = PooledLoSequenceGenerator.NAME)
+    @GenericGenerator(name = PooledLoSequenceGenerator.NAME, strategy = PooledLoSequenceGenerator.STRATEGY)
     private Long id;
 
     private String username; // 정상, 예외, 잔고부족
-    private String payStatus; // 대기, 완료
+    private String payStatus; // 결제중, 대기, 완료
+
+    @Column(unique = true, updatable = false)
+    private String idempotencyKey; // 클라이언트 재시도로 같은 주문이 두 번 저장되지 않도록 하는 키 (없으면 null)
+
+    @Column(updatable = false)
+    private String requestFingerprint; // 멱등 키로 처음 저장한 요청 내용의 해시. 같은 키로 다른 내용이 들어오면 거절한다. (없으면 null)
+
+    @Version
+    private Long version; // 낙관적 락: 동시에 payStatus 를 변경하면 나중에 커밋하는 쪽이 실패한다.
+
+    @UpdateTimestamp
+    private LocalDateTime updatedAt; // "결제중" 으로 오래 남은 주문을 찾기 위한 마지막 변경 시각
 }
@@ -0,0 +1,66 @@
+package com.study.springtx.order;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * POST /orders {"username": "..."}
+ * - 201: 결제 완료
+ * - 402: 잔고 부족 ("대기" 상태로 주문은 저장됨)
+ * - 422: 이미 다른 내용의 주문에 사용한 Idempotency-Key
+ * - 500: 시스템 예외 (주문 롤백)
+ * - Idempotency-Key 헤더가 있으면 같은 키로 재시도한 요청에 처음 주문과 같은 응답을 돌려준다.
+ */
+@RestController
+@RequestMapping("/orders")
+@RequiredArgsConstructor
+public class OrderController {
+
+    private final OrderService orderService;
+
+    @PostMapping
+    public ResponseEntity<OrderResponse> order(@RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey,
+                                               @RequestBody OrderRequest request) {
+        Order order = new Order();
+        order.setUsername(request.getUsername());
+        try {
+            if (idempotencyKey == null || idempotencyKey.isBlank()) {
+                orderService.order(order);
+            } else {
+                orderService.order(order, idempotencyKey);
+            }
+            return ResponseEntity.status(HttpStatus.CREATED).body(new OrderResponse(order, null));
+        } catch (NotEnoughMoneyException e) {
+            return ResponseEntity.status(HttpStatus.PAYMENT_REQUIRED).body(new OrderResponse(order, e.getMessage()));
+        } catch (IdempotencyKeyMismatchException e) {
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(new OrderResponse(order, e.getMessage()));
+        }
+    }
+
+    @Getter
+    @Setter
+    public static class OrderRequest {
+        private String username;
+    }
+
+    @Getter
+    public static class OrderResponse {
+        private final Long id;
+        private final String payStatus;
+        private final String message;
+
+        OrderResponse(Order order, String message) {
+            this.id = order.getId();
+            this.payStatus = order.getPayStatus();
+            this.message = message;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.study.springtx.order;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * 멱등 키별로 주문을 한 번만 실행
+ * - 최근 키의 결과는 메모리(Caffeine)에 기억해서 DB 왕복 없이 같은 결과를 돌려준다.
+ * - 같은 키로 동시에 들어온 요청은 새 트랜잭션을 시작하지 않고 먼저 실행 중인 요청의 결과를 기다린다.
+ * - 실패(예외)는 기억하지 않는다. 롤백된 주문은 같은 키로 다시 시도할 수 있다.
+ * - 메모리에서 밀려났거나 다른 노드에서 처리한 키는 orders.idempotency_key 유니크 제약으로 판단한다. (OrderService)
+ * - hit/miss 수는 actuator metrics (cache.gets, cache=orderIdempotency) 로 확인한다.
+ */
+@Component
+public class OrderIdempotency {
+
+    private final Cache<String, OrderReceipt> recent;
+    private final ConcurrentMap<String, CompletableFuture<OrderReceipt>> inFlight = new ConcurrentHashMap<>();
+
+    public OrderIdempotency(OrderProperties properties, MeterRegistry meterRegistry) {
+        OrderProperties.Idempotency idempotency = properties.getIdempotency();
+        this.recent = Caffeine.newBuilder()
+                .maximumSize(idempotency.getMaximumSize())
+                .expireAfterWrite(idempotency.getTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, recent, "orderIdempotency");
+    }
+
+    /**
+     * 처음 보는 키면 order 를 실행하고, 이미 처리했거나 처리 중인 키면 그 결과를 돌려준다.
+     * - order 는 커밋까지 끝낸 뒤 결과를 돌려줘야 한다. (커밋 전에 기억하면 롤백된 결과를 돌려줄 수 있다.)
+     */
+    public OrderReceipt execute(String idempotencyKey, Supplier<OrderReceipt> order) {
+        OrderReceipt cached = recent.getIfPresent(idempotencyKey);
+        if (cached != null) {
+            return cached;
+        }
+
+        CompletableFuture<OrderReceipt> mine = new CompletableFuture<>();
+        CompletableFuture<OrderReceipt> running = inFlight.putIfAbsent(idempotencyKey, mine);
+        if (running != null) {
+            return await(running);
+        }
+
+        try {
+            // 앞선 요청이 결과를 기억하고 inFlight 에서 빠진 직후일 수 있으므로 한 번 더 확인
+            OrderReceipt receipt = recent.getIfPresent(idempotencyKey);
+            if (receipt == null) {
+                receipt = order.get();
+                recent.put(idempotencyKey, receipt);
+            }
+            mine.complete(receipt);
+            return receipt;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(idempotencyKey, mine);
+        }
+    }
+
+    // 테스트용: 메모리의 키를 비워서 DB 유니크 제약으로 판단하는 경로를 확인한다.
+    void invalidateAll() {
+        recent.invalidateAll();
+    }
+
+    private OrderReceipt await(CompletableFuture<OrderReceipt> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.study.springtx.order;
+
+/**
+ * 주문 처리 결과
+ */
+public enum OrderOutcome {
+    COMPLETED, // 정상 승인 -> 커밋 (완료)
+    PENDING,   // 잔고 부족 -> 커밋 (대기)
+    FAILED,    // 시스템 예외 -> 해당 주문 롤백
+    UNKNOWN    // 결제 연동 실패(타임아웃 등)로 결제 여부를 모름 -> "결제중" 으로 남기고 복구 작업이 마무리
+}
@@ -0,0 +1,28 @@
+package com.study.springtx.order;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties("springtx.order")
+public class OrderProperties {
+
+    // orderAll 에서 한 트랜잭션으로 커밋할 주문 수
+    private int chunkSize = 500;
+
+    private final Idempotency idempotency = new Idempotency();
+
+    @Getter
+    @Setter
+    public static class Idempotency {
+        // 메모리에 기억할 최근 멱등 키 수 (밀려난 키는 DB 유니크 제약으로 판단)
+        private long maximumSize = 10_000;
+
+        // 멱등 키를 메모리에 기억하는 시간
+        private Duration ttl = Duration.ofMinutes(10);
+    }
+}
@@ -0,0 +1,46 @@
+package com.study.springtx.order;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * 커밋된 주문의 응답에 필요한 값만 담은 불변 스냅샷
+ * - 같은 멱등 키로 다시 들어온 주문에 DB 조회 없이 같은 응답을 돌려주기 위해 보관한다.
+ * - 요청 내용의 해시(fingerprint)를 함께 보관해서, 같은 키로 다른 내용의 주문이 들어오면 알아낸다.
+ */
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public class OrderReceipt {
+
+    private final Long orderId;
+    private final String payStatus;
+    private final String requestFingerprint;
+
+    public static OrderReceipt of(Order order) {
+        return new OrderReceipt(order.getId(), order.getPayStatus(), order.getRequestFingerprint());
+    }
+
+    // 멱등 키로 비교할 요청 내용의 해시 (주문 요청의 내용은 username)
+    static String fingerprintOf(Order order) {
+        return DigestUtils.md5DigestAsHex(String.valueOf(order.getUsername()).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public boolean matches(String requestFingerprint) {
+        return Objects.equals(this.requestFingerprint, requestFingerprint);
+    }
+
+    public boolean isPending() {
+        return "대기".equals(payStatus);
+    }
+
+    // 호출자가 넘긴 주문 객체가 저장된 주문을 가리키도록 id, 상태를 채운다.
+    void applyTo(Order order) {
+        order.setId(orderId);
+        order.setPayStatus(payStatus);
+    }
+}
@@ -1,6 +1,19 @@
 package com.study.springtx.order;
 
+import org.hibernate.annotations.QueryHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHint;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
 
 public interface OrderRepository extends JpaRepository<Order, Long> {
+
+    // 조회 전용 (결과 반영은 주문별 트랜잭션에서 다시 조회해서 변경)
+    @org.springframework.data.jpa.repository.QueryHints(@QueryHint(name = QueryHints.READ_ONLY, value = "true"))
+    List<Order> findByPayStatusAndUpdatedAtBefore(String payStatus, LocalDateTime updatedAt, Pageable pageable);
+
+    Optional<Order> findByIdempotencyKey(String idempotencyKey);
 }
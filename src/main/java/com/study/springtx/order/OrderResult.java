@@ -0,0 +1,35 @@
+package com.study.springtx.order;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 주문 1건에 대한 처리 결과
+ * - FAILED 인 경우 주문이 롤백되었으므로 order 의 id 는 저장된 데이터를 가리키지 않는다.
+ * - UNKNOWN 인 경우 주문은 "결제중" 으로 저장되어 있고, 결제 결과는 recoverStuckOrders() 가 반영한다.
+ */
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public class OrderResult {
+
+    private final Order order;
+    private final OrderOutcome outcome;
+    private final String message;
+
+    public static OrderResult completed(Order order) {
+        return new OrderResult(order, OrderOutcome.COMPLETED, null);
+    }
+
+    public static OrderResult pending(Order order, String message) {
+        return new OrderResult(order, OrderOutcome.PENDING, message);
+    }
+
+    public static OrderResult failed(Order order, String message) {
+        return new OrderResult(order, OrderOutcome.FAILED, message);
+    }
+
+    public static OrderResult unknown(Order order, String message) {
+        return new OrderResult(order, OrderOutcome.UNKNOWN, message);
+    }
+}
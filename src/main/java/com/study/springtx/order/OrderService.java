@@ -1,34 +1,404 @@
 package com.study.springtx.order;
 
+import com.study.springtx.outbox.Outbox;
+import com.study.springtx.tx.RetryingTransactionExecutor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class OrderService {
 
+    private static final String PAYMENT_UNKNOWN = "결제 결과 확인 중";
+
     private final OrderRepository orderRepository;
+    private final TransactionTemplate txTemplate;
+    private final OrderProperties orderProperties;
+    private final RetryingTransactionExecutor retryingTxExecutor;
+    private final PaymentGateway paymentGateway;
+    private final PaymentProperties paymentProperties;
+    private final Outbox outbox;
+    private final OrderIdempotency idempotency;
 
     // JPA는 트랜잭션 커밋 시점에 Order 데이터를 DB에 반영함
     @Transactional
     public void order(Order order) throws NotEnoughMoneyException {
         log.info("order 호출");
         orderRepository.save(order);
+        if (pay(order) == OrderOutcome.PENDING) {
+            throw NotEnoughMoneyException.INSUFFICIENT_BALANCE;
+        }
+        orderCompleted(order);
+    }
+
+    /**
+     * 멱등 키가 있는 order()
+     * - 같은 키로 다시 들어온 주문은 결제를 다시 하지 않고, 처음 주문의 결과(id, 상태, 잔고 부족 예외)를 그대로 돌려준다.
+     * - 같은 키로 다른 내용(username)의 주문이 들어오면 IdempotencyKeyMismatchException 을 던진다.
+     * - 최근 키는 메모리에서 바로 응답하고, 같은 키의 동시 요청은 먼저 실행 중인 요청의 결과를 기다린다.
+     * - 메모리에서 밀려난 키나 다른 노드에서 처리한 키는 결제 전에 주문을 INSERT 해서 유니크 제약 위반으로 알아낸다.
+     * - 시스템 예외로 롤백된 주문은 기억하지 않으므로 같은 키로 다시 시도할 수 있다.
+     * - 결과를 커밋 후에 기억해야 하므로 트랜잭션 밖에서 호출한다.
+     */
+    public void order(Order order, String idempotencyKey) throws NotEnoughMoneyException {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            throw new IllegalArgumentException("멱등 키가 없습니다.");
+        }
+        String requestFingerprint = OrderReceipt.fingerprintOf(order);
+        OrderReceipt receipt = idempotency.execute(idempotencyKey, () -> orderOnce(order, idempotencyKey, requestFingerprint));
+        if (!receipt.matches(requestFingerprint)) {
+            log.info("멱등 키를 다른 내용의 주문에 다시 사용 orderId={}", receipt.getOrderId());
+            throw new IdempotencyKeyMismatchException("이미 다른 내용의 주문에 사용한 멱등 키입니다.");
+        }
+        receipt.applyTo(order);
+        if (receipt.isPending()) {
+            throw NotEnoughMoneyException.INSUFFICIENT_BALANCE;
+        }
+    }
+
+    private OrderReceipt orderOnce(Order order, String idempotencyKey, String requestFingerprint) {
+        order.setIdempotencyKey(idempotencyKey);
+        order.setRequestFingerprint(requestFingerprint);
+        try {
+            return txTemplate.execute(status -> {
+                log.info("order 호출");
+                orderRepository.saveAndFlush(order); // 결제 전에 INSERT 해서 이미 처리한 키면 여기서 실패
+                if (pay(order) == OrderOutcome.COMPLETED) {
+                    orderCompleted(order);
+                }
+                return OrderReceipt.of(order);
+            });
+        } catch (DataIntegrityViolationException e) {
+            Optional<Order> existing = txTemplate.execute(status -> orderRepository.findByIdempotencyKey(idempotencyKey));
+            if (existing.isEmpty()) {
+                throw e;
+            }
+            log.info("이미 처리한 멱등 키, 저장된 주문으로 응답 orderId={}", existing.get().getId());
+            return OrderReceipt.of(existing.get());
+        }
+    }
+
+    /**
+     * order() 와 같은 처리를 예외 대신 결과로 돌려준다.
+     * - 잔고 부족은 예외 없이 "대기" 로 커밋하고 PENDING 을 반환한다.
+     * - 시스템 예외는 트랜잭션을 명시적으로 롤백(setRollbackOnly)하고 FAILED 를 반환한다.
+     */
+    public OrderResult placeOrder(Order order) {
+        return txTemplate.execute(status -> {
+            log.info("order 호출");
+            orderRepository.save(order);
+            try {
+                OrderOutcome outcome = pay(order);
+                if (outcome == OrderOutcome.COMPLETED) {
+                    orderCompleted(order);
+                }
+                return toResult(order, outcome);
+            } catch (RuntimeException e) {
+                status.setRollbackOnly();
+                return OrderResult.failed(order, e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * 결제 호출을 트랜잭션 밖으로 분리한 주문
+     * - 1) "결제중" 으로 주문을 저장하고 커밋 -> 2) 커넥션 없이 결제 게이트웨이 호출 -> 3) 짧은 트랜잭션으로 결과 반영
+     * - 결제를 기다리는 동안 커넥션을 잡지 않으므로 결제 응답이 느려도 커넥션 풀이 고갈되지 않는다.
+     * - 게이트웨이가 결제를 거절(시스템 예외)한 경우에만 주문을 삭제해서 order() 의 롤백과 같은 결과를 만든다.
+     * - 게이트웨이 호출이 예외(타임아웃, 연결 끊김)로 끝나면 이미 결제됐을 수 있으므로 주문을 "결제중" 으로 남기고 UNKNOWN 을 반환한다.
+     * - 3) 전에 장애가 나거나 결과를 모르는 주문은 recoverStuckOrders() 가 결제 결과를 조회해서 마무리한다.
+     * - 호출자의 트랜잭션 안에서 부르면 결제 호출 동안 그 트랜잭션의 커넥션이 그대로 잡혀 있으므로 트랜잭션 밖에서 호출한다.
+     */
+    public OrderResult placeOrderStaged(Order order) {
+        txTemplate.executeWithoutResult(status -> {
+            log.info("order 호출");
+            order.setPayStatus("결제중");
+            orderRepository.save(order);
+        });
+
+        Optional<PaymentResult> result = requestPayment(order);
+        if (result.isEmpty()) {
+            return OrderResult.unknown(order, PAYMENT_UNKNOWN);
+        }
+        return finishPayment(order, result.get());
+    }
+
+    // 트랜잭션 밖에서 결제 요청. 예외로 끝나면 결제 여부를 알 수 없으므로 empty (주문은 "결제중" 으로 남겨 복구 작업에 맡긴다)
+    private Optional<PaymentResult> requestPayment(Order order) {
+        try {
+            log.info("결제 프로세스 진입");
+            return Optional.of(paymentGateway.pay(order));
+        } catch (RuntimeException e) {
+            log.info("결제 연동 실패, 결제 결과를 조회할 때까지 결제중으로 유지 orderId={}", order.getId(), e);
+            return Optional.empty();
+        }
+    }
+
+    public int recoverStuckOrders() {
+        return recoverStuckOrders(paymentProperties.getRecovery().getStuckAfter());
+    }
+
+    /**
+     * stuckAfter 이상 "결제중" 으로 남은 주문의 결제 결과를 게이트웨이에서 조회해서 반영
+     * - 조회도 트랜잭션 밖에서 하고, 결과 반영만 주문 단위의 짧은 트랜잭션으로 처리한다.
+     * @return 복구한 주문 수
+     */
+    public int recoverStuckOrders(Duration stuckAfter) {
+        List<Order> stuckOrders = txTemplate.execute(status -> orderRepository.findByPayStatusAndUpdatedAtBefore(
+                "결제중", LocalDateTime.now().minus(stuckAfter),
+                PageRequest.of(0, paymentProperties.getRecovery().getBatchSize())));
+
+        int recovered = 0;
+        for (Order order : stuckOrders) {
+            PaymentResult result;
+            try {
+                result = paymentGateway.inquire(order);
+            } catch (RuntimeException e) {
+                log.info("결제 결과 조회 실패, 다음 주기에 다시 시도 orderId={}", order.getId(), e);
+                continue;
+            }
+            finishPayment(order, result);
+            recovered++;
+        }
+        return recovered;
+    }
+
+    // 결제 결과를 반영. 복구 작업과 동시에 반영하면 낙관적 락 충돌 후 재시도에서 이미 반영된 결과를 돌려준다.
+    private OrderResult finishPayment(Order submitted, PaymentResult result) {
+        return retryingTxExecutor.execute(status -> {
+            Optional<Order> found = orderRepository.findById(submitted.getId());
+            if (found.isEmpty()) {
+                return OrderResult.failed(submitted, "시스템 예외");
+            }
+            return applyPayment(found.get(), result);
+        });
+    }
+
+    // "결제중" 인 주문에 결제 결과를 반영. 이미 반영된 주문은 현재 상태를 돌려준다.
+    private OrderResult applyPayment(Order order, PaymentResult result) {
+        if (!"결제중".equals(order.getPayStatus())) {
+            return toResult(order, "완료".equals(order.getPayStatus()) ? OrderOutcome.COMPLETED : OrderOutcome.PENDING);
+        }
+
+        switch (result) {
+            case APPROVED:
+                order.setPayStatus("완료");
+                orderCompleted(order);
+                return OrderResult.completed(order);
+            case INSUFFICIENT_FUNDS:
+                order.setPayStatus("대기");
+                return toResult(order, OrderOutcome.PENDING);
+            default: // 게이트웨이가 거절한 결제만 삭제
+                orderRepository.delete(order);
+                return OrderResult.failed(order, "시스템 예외");
+        }
+    }
+
+    /**
+     * "대기" 주문을 "완료" 로 변경 (고객이 별도 계좌로 입금한 경우)
+     * - 같은 주문을 동시에 변경하면 낙관적 락 충돌이 나고, 트랜잭션을 다시 실행해서 최신 상태로 다시 판단한다.
+     * @return 변경했으면 true, 이미 "대기" 상태가 아니면 false
+     */
+    public boolean completePendingOrder(Long orderId) {
+        return retryingTxExecutor.execute(status -> {
+            Order order = orderRepository.findById(orderId)
+                    .orElseThrow(() -> new IllegalArgumentException("주문이 없습니다. orderId=" + orderId));
+            if (!"대기".equals(order.getPayStatus())) {
+                return false;
+            }
+            order.setPayStatus("완료");
+            orderCompleted(order);
+            return true;
+        });
+    }
+
+    public List<OrderResult> orderAll(Collection<Order> orders) {
+        return orderAll(orders, orderProperties.getChunkSize());
+    }
+
+    /**
+     * 주문 여러 건을 chunkSize 단위로 나누어 placeOrderStaged() 와 같은 단계로 처리
+     * - 1) 청크를 "결제중" 으로 한 트랜잭션에 저장 -> 2) 커넥션 없이 주문별 결제 -> 3) 청크의 결제 결과를 한 트랜잭션으로 반영
+     * - 잔고 부족은 "대기" 로 커밋하고, 결제가 거절(시스템 예외)된 주문만 삭제한다. (같은 청크의 다른 주문은 커밋)
+     * - 결제 결과를 알 수 없는 주문은 "결제중" 으로 남기고 UNKNOWN 을 반환한다.
+     * - 1) 의 커밋이 실패하면 주문 1건씩 다시 저장하고, 저장하지 못한 주문은 결제하지 않는다.
+     * - 3) 의 커밋이 실패하면 주문 1건씩 결과를 다시 반영한다. 이미 받은 결제 결과를 사용하므로 다시 결제하지 않는다.
+     */
+    public List<OrderResult> orderAll(Collection<Order> orders, int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize 는 1 이상이어야 합니다. chunkSize=" + chunkSize);
+        }
+
+        List<OrderResult> results = new ArrayList<>(orders.size());
+        List<Order> chunk = new ArrayList<>(Math.min(chunkSize, orders.size()));
+        for (Order order : orders) {
+            chunk.add(order);
+            if (chunk.size() == chunkSize) {
+                results.addAll(orderChunk(chunk));
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            results.addAll(orderChunk(chunk));
+        }
+        return results;
+    }
+
+    private List<OrderResult> orderChunk(List<Order> chunk) {
+        Map<Order, OrderResult> results = new IdentityHashMap<>();
+        List<Order> saved = saveChunk(chunk, results);
+
+        Map<Order, PaymentResult> payments = new LinkedHashMap<>();
+        for (Order order : saved) {
+            Optional<PaymentResult> payment = requestPayment(order);
+            if (payment.isPresent()) {
+                payments.put(order, payment.get());
+            } else {
+                results.put(order, OrderResult.unknown(order, PAYMENT_UNKNOWN));
+            }
+        }
+        applyChunk(payments, results);
+
+        List<OrderResult> ordered = new ArrayList<>(chunk.size());
+        for (Order order : chunk) {
+            ordered.add(results.get(order));
+        }
+        return ordered;
+    }
+
+    // 1) 청크를 "결제중" 으로 저장. 커밋이 실패하면 1건씩 다시 저장하고, 저장하지 못한 주문은 FAILED
+    private List<Order> saveChunk(List<Order> chunk, Map<Order, OrderResult> results) {
+        try {
+            txTemplate.executeWithoutResult(status -> {
+                for (Order order : chunk) {
+                    order.setPayStatus("결제중");
+                    orderRepository.save(order);
+                }
+            });
+            return chunk;
+        } catch (RuntimeException e) {
+            log.info("청크 저장 실패, 주문 단위로 다시 저장 chunkSize={}", chunk.size(), e);
+            List<Order> saved = new ArrayList<>(chunk.size());
+            for (Order order : chunk) {
+                resetForRetry(order);
+                try {
+                    txTemplate.executeWithoutResult(status -> orderRepository.save(order));
+                    saved.add(order);
+                } catch (RuntimeException saveFailure) {
+                    resetForRetry(order);
+                    results.put(order, OrderResult.failed(order, saveFailure.getMessage()));
+                }
+            }
+            return saved;
+        }
+    }
+
+    /**
+     * 롤백된 트랜잭션에서 할당된 id, version 제거
+     * - persist 는 롤백되어도 id 와 version(0) 을 엔티티에 남긴다.
+     * - version 이 남아 있으면 save() 가 새 엔티티로 보지 않고 merge 해서 복사본을 저장하므로,
+     *   넘긴 주문에는 저장된 id 가 반영되지 않는다.
+     */
+    private static void resetForRetry(Order order) {
+        order.setId(null);
+        order.setVersion(null);
+    }
+
+    // 3) 결제 결과를 청크 단위로 반영. 커밋이 실패하면 1건씩 다시 반영한다. (결제는 다시 하지 않음)
+    private void applyChunk(Map<Order, PaymentResult> payments, Map<Order, OrderResult> results) {
+        if (payments.isEmpty()) {
+            return;
+        }
+        try {
+            Map<Order, OrderResult> applied = txTemplate.execute(status -> {
+                Map<Long, Order> managed = new HashMap<>();
+                for (Order order : orderRepository.findAllById(
+                        payments.keySet().stream().map(Order::getId).collect(Collectors.toList()))) {
+                    managed.put(order.getId(), order);
+                }
+                Map<Order, OrderResult> chunkResults = new IdentityHashMap<>();
+                payments.forEach((submitted, payment) -> {
+                    Order order = managed.get(submitted.getId());
+                    chunkResults.put(submitted, order == null
+                            ? OrderResult.failed(submitted, "시스템 예외")
+                            : applyPayment(order, payment));
+                });
+                return chunkResults;
+            });
+            applied.forEach((submitted, result) -> results.put(submitted, toSubmitted(submitted, result)));
+        } catch (RuntimeException e) {
+            log.info("청크 결과 반영 실패, 주문 단위로 다시 반영 chunkSize={}", payments.size(), e);
+            payments.forEach((submitted, payment) -> {
+                try {
+                    results.put(submitted, toSubmitted(submitted, finishPayment(submitted, payment)));
+                } catch (RuntimeException applyFailure) {
+                    log.info("결제 결과 반영 실패, 복구 작업에 맡김 orderId={}", submitted.getId(), applyFailure);
+                    results.put(submitted, OrderResult.unknown(submitted, PAYMENT_UNKNOWN));
+                }
+            });
+        }
+    }
+
+    // 반영된 상태를 호출자가 넘긴 주문에 옮긴다. 삭제된 주문은 저장되지 않은 주문과 같게 id 를 비운다.
+    private OrderResult toSubmitted(Order submitted, OrderResult result) {
+        if (result.getOutcome() == OrderOutcome.FAILED) {
+            submitted.setId(null);
+            submitted.setVersion(null);
+            return OrderResult.failed(submitted, result.getMessage());
+        }
+        submitted.setPayStatus(result.getOrder().getPayStatus());
+        submitted.setVersion(result.getOrder().getVersion());
+        return toResult(submitted, result.getOutcome());
+    }
+
+    // 주문 완료 이벤트를 같은 트랜잭션으로 outbox 에 저장 (커밋된 후 OutboxRelay 가 발행)
+    private void orderCompleted(Order order) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("id", order.getId());
+        payload.put("username", order.getUsername());
+        payload.put("payStatus", order.getPayStatus());
+        outbox.append("order", order.getId(), "OrderCompleted", payload);
+    }
+
+    private OrderResult toResult(Order order, OrderOutcome outcome) {
+        return outcome == OrderOutcome.COMPLETED
+                ? OrderResult.completed(order)
+                : OrderResult.pending(order, NotEnoughMoneyException.INSUFFICIENT_BALANCE.getMessage());
+    }
 
+    // 잔고 부족은 예외가 아닌 PENDING 결과로, 시스템 예외만 RuntimeException 으로 알린다.
+    private OrderOutcome pay(Order order) {
         log.info("결제 프로세스 진입");
-        if (order.getUsername().equals("예외")) {
+        PaymentResult result = paymentGateway.pay(order);
+        if (result == PaymentResult.FAILED) {
             log.info("시스템 예외 발생");
             throw new RuntimeException("시스템 예외");
-        } else if (order.getUsername().equals("잔고부족")) {
+        } else if (result == PaymentResult.INSUFFICIENT_FUNDS) {
             log.info("잔고 부족 비즈니스 예외 발생");
             order.setPayStatus("대기");
-            throw new NotEnoughMoneyException("잔고가 부족합니다");
+            return OrderOutcome.PENDING;
         } else { //정상 승인
             log.info("정상 승인");
             order.setPayStatus("완료"); }
         log.info("결제 프로세스 완료");
+        return OrderOutcome.COMPLETED;
     }
 }
@@ -0,0 +1,14 @@
+package com.study.springtx.order;
+
+/**
+ * 외부 결제 연동
+ * - 다른 구현을 사용하려면 PaymentGateway 빈을 @Primary 로 등록한다.
+ */
+public interface PaymentGateway {
+
+    // 결제 요청. 연동 자체가 실패하면 RuntimeException 을 던진다.
+    PaymentResult pay(Order order);
+
+    // 이미 요청한 결제의 결과 조회 (결제중 상태로 남은 주문 복구용)
+    PaymentResult inquire(Order order);
+}
@@ -0,0 +1,31 @@
+package com.study.springtx.order;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties("springtx.payment")
+public class PaymentProperties {
+
+    // StubPaymentGateway 응답 지연
+    private Duration stubLatency = Duration.ZERO;
+
+    private final Recovery recovery = new Recovery();
+
+    @Getter
+    @Setter
+    public static class Recovery {
+        // true 면 "결제중" 으로 남은 주문을 주기적으로 복구한다.
+        private boolean enabled = false;
+
+        // 마지막 변경 후 이 시간이 지나도록 "결제중" 이면 복구 대상
+        private Duration stuckAfter = Duration.ofMinutes(5);
+
+        // 한 번에 복구할 최대 주문 수
+        private int batchSize = 100;
+    }
+}
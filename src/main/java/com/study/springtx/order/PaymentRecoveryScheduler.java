@@ -0,0 +1,24 @@
+package com.study.springtx.order;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "springtx.payment.recovery.enabled", havingValue = "true")
+public class PaymentRecoveryScheduler {
+
+    private final OrderService orderService;
+
+    @Scheduled(fixedDelayString = "${springtx.payment.recovery.interval:PT1M}")
+    public void recover() {
+        int recovered = orderService.recoverStuckOrders();
+        if (recovered > 0) {
+            log.info("결제중 주문 복구 count={}", recovered);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.study.springtx.order;
+
+/**
+ * 결제 게이트웨이 응답
+ */
+public enum PaymentResult {
+    APPROVED,           // 정상 승인 -> 완료
+    INSUFFICIENT_FUNDS, // 잔고 부족 -> 대기
+    FAILED              // 시스템 예외 -> 주문 취소(롤백)
+}
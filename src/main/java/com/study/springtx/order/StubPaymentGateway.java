@@ -0,0 +1,47 @@
+package com.study.springtx.order;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * 로컬/테스트용 결제 게이트웨이
+ * - username 으로 결과를 정한다. (정상 -> 승인, 잔고부족 -> 잔고 부족, 예외 -> 실패)
+ * - 타임아웃 -> 결제는 승인했지만 응답 전에 연결이 끊긴 것처럼 pay() 가 예외를 던지고, inquire() 는 승인을 돌려준다.
+ * - springtx.payment.stub-latency 만큼 응답을 지연시켜 외부 결제 호출 시간을 흉내낸다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StubPaymentGateway implements PaymentGateway {
+
+    private final PaymentProperties properties;
+
+    @Override
+    public PaymentResult pay(Order order) {
+        long latencyMillis = properties.getStubLatency().toMillis();
+        if (latencyMillis > 0) {
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("결제 요청 중 인터럽트", e);
+            }
+        }
+        PaymentResult result = inquire(order);
+        if (order.getUsername().equals("타임아웃")) {
+            throw new IllegalStateException("결제 응답 시간 초과");
+        }
+        return result;
+    }
+
+    @Override
+    public PaymentResult inquire(Order order) {
+        if (order.getUsername().equals("예외")) {
+            return PaymentResult.FAILED;
+        } else if (order.getUsername().equals("잔고부족")) {
+            return PaymentResult.INSUFFICIENT_FUNDS;
+        }
+        return PaymentResult.APPROVED;
+    }
+}
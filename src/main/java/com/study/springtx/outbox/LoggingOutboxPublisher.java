@@ -0,0 +1,18 @@
+package com.study.springtx.outbox;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * 기본 발행기: 로그만 남긴다.
+ */
+@Slf4j
+@Component
+public class LoggingOutboxPublisher implements OutboxPublisher {
+
+    @Override
+    public void publish(OutboxEvent event) {
+        log.info("outbox 발행 id={}, key={}, type={}, payload={}",
+                event.getId(), event.orderingKey(), event.getEventType(), event.getPayload());
+    }
+}
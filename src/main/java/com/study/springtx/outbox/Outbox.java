@@ -0,0 +1,34 @@
+package com.study.springtx.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * 이벤트를 업무 데이터와 같은 트랜잭션으로 outbox 테이블에 저장
+ * - 업무 트랜잭션이 롤백되면 이벤트도 남지 않고, 커밋되면 반드시 남는다.
+ * - 실제 발행은 커밋 이후 OutboxRelay 가 한다. (트랜잭션 안에서 외부 호출 없음)
+ */
+@Component
+@RequiredArgsConstructor
+public class Outbox {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(String aggregateType, Object aggregateId, String eventType, Object payload) {
+        outboxEventRepository.save(new OutboxEvent(aggregateType, String.valueOf(aggregateId), eventType, toJson(payload)));
+    }
+
+    private String toJson(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("이벤트를 JSON 으로 변환할 수 없습니다.", e);
+        }
+    }
+}
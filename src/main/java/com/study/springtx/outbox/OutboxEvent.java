@@ -0,0 +1,55 @@
+package com.study.springtx.outbox;
+
+import com.study.springtx.common.PooledLoSequenceGenerator;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.GenericGenerator;
+
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Lob;
+import javax.persistence.Table;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(indexes = {
+        @Index(name = "idx_outbox_published_id", columnList = "publishedAt, id"),
+        @Index(name = "idx_outbox_key_parked", columnList = "aggregateType, aggregateId, parkedAt")
+})
+@Getter @Setter
+@NoArgsConstructor
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(generator = PooledLoSequenceGenerator.NAME)
+    @GenericGenerator(name = PooledLoSequenceGenerator.NAME, strategy = PooledLoSequenceGenerator.STRATEGY)
+    private Long id; // 같은 aggregate 의 이벤트는 id 순서로 발행
+
+    private String aggregateType; // order, member
+    private String aggregateId;
+    private String eventType; // OrderCompleted, MemberJoined
+
+    @Lob
+    private String payload; // JSON
+
+    private LocalDateTime createdAt;
+    private LocalDateTime publishedAt; // null 이면 아직 발행 전
+    private int attempts; // 발행 실패 횟수
+    private LocalDateTime parkedAt; // null 이 아니면 발행 실패가 maxAttempts 에 이르러 발행을 멈춘 이벤트 (dead-letter)
+
+    public OutboxEvent(String aggregateType, String aggregateId, String eventType, String payload) {
+        this.aggregateType = aggregateType;
+        this.aggregateId = aggregateId;
+        this.eventType = eventType;
+        this.payload = payload;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    // 발행 순서를 지켜야 하는 단위
+    public String orderingKey() {
+        return aggregateType + ":" + aggregateId;
+    }
+}
@@ -0,0 +1,42 @@
+package com.study.springtx.outbox;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * afterId 뒤의 발행 대기 이벤트를 id 순서로 조회
+     * - 보류(parked)된 이벤트와, 보류된 이벤트가 있는 aggregate 의 뒤 이벤트는 제외한다. (발행 순서 유지)
+     */
+    @Query("select e from OutboxEvent e where e.publishedAt is null and e.parkedAt is null and e.id > :afterId"
+            + " and not exists (select p.id from OutboxEvent p where p.aggregateType = e.aggregateType"
+            + " and p.aggregateId = e.aggregateId and p.parkedAt is not null and p.publishedAt is null)"
+            + " order by e.id asc")
+    List<OutboxEvent> findPublishable(@Param("afterId") long afterId, Pageable pageable);
+
+    @Modifying
+    @Query("update OutboxEvent e set e.publishedAt = :publishedAt where e.id in :ids")
+    int markPublished(@Param("ids") Collection<Long> ids, @Param("publishedAt") LocalDateTime publishedAt);
+
+    @Modifying
+    @Query("update OutboxEvent e set e.attempts = e.attempts + 1 where e.id in :ids")
+    int incrementAttempts(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("update OutboxEvent e set e.parkedAt = :parkedAt where e.id in :ids and e.attempts >= :maxAttempts")
+    int parkExhausted(@Param("ids") Collection<Long> ids, @Param("maxAttempts") int maxAttempts,
+                      @Param("parkedAt") LocalDateTime parkedAt);
+
+    @Modifying
+    @Query("update OutboxEvent e set e.parkedAt = null, e.attempts = 0"
+            + " where e.aggregateType = :aggregateType and e.aggregateId = :aggregateId and e.parkedAt is not null")
+    int unpark(@Param("aggregateType") String aggregateType, @Param("aggregateId") String aggregateId);
+}
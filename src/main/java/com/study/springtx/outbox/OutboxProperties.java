@@ -0,0 +1,20 @@
+package com.study.springtx.outbox;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties("springtx.outbox")
+public class OutboxProperties {
+
+    // true 면 springtx.outbox.poll-interval (기본 PT1S) 마다 발행. 이벤트를 발행하는 한 인스턴스에서만 켠다.
+    private boolean relayEnabled = false;
+
+    // 한 번에 읽어서 발행할 최대 이벤트 수
+    private int batchSize = 100;
+
+    // 발행 실패가 이 횟수에 이르면 이벤트를 보류(parked)한다. 같은 aggregate 의 뒤 이벤트도 보류가 풀릴 때까지 발행하지 않는다.
+    private int maxAttempts = 10;
+}
@@ -0,0 +1,12 @@
+package com.study.springtx.outbox;
+
+/**
+ * 외부(메시지 브로커 등)로 이벤트 발행
+ * - 다른 구현을 사용하려면 OutboxPublisher 빈을 @Primary 로 등록한다.
+ * - 최소 한 번(at-least-once) 전달: 같은 이벤트가 다시 발행될 수 있으므로 소비자는 OutboxEvent.id 로 중복을 걸러야 한다.
+ */
+public interface OutboxPublisher {
+
+    // 발행에 실패하면 예외를 던진다. (다음 주기에 다시 발행)
+    void publish(OutboxEvent event) throws Exception;
+}
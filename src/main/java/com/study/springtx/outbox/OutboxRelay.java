@@ -0,0 +1,138 @@
+package com.study.springtx.outbox;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 커밋된 outbox 이벤트를 batchSize 건씩 읽어서 발행
+ * - 조회와 발행 완료 표시는 각각 짧은 트랜잭션, 발행(외부 호출)은 트랜잭션 밖에서 한다.
+ * - 같은 aggregate(orderingKey) 의 이벤트는 id 순서로 발행한다. 하나가 실패하면 그 뒤 이벤트는 다음 주기로 미룬다.
+ *   실패한 이벤트가 있어도 한 주기에 다른 aggregate 의 이벤트는 끝까지 발행한다. (id 순서로 한 번씩만 읽음)
+ * - 발행 실패가 maxAttempts 에 이르면 이벤트를 보류(parked)하고, 그 aggregate 는 retryParked() 전까지 발행하지 않는다.
+ * - 발행 후 완료 표시 전에 중단되면 다음 주기에 다시 발행된다. (at-least-once)
+ * - 발행 수는 springtx.outbox.published, 실패 수는 springtx.outbox.failed, 보류 수는 springtx.outbox.parked 메트릭으로 확인한다.
+ * - 한 인스턴스에서만 실행하는 것을 전제로 한다.
+ */
+@Slf4j
+@Component
+public class OutboxRelay {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxPublisher publisher;
+    private final OutboxProperties properties;
+    private final TransactionTemplate txTemplate;
+    private final Counter published;
+    private final Counter failed;
+    private final Counter parked;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository, OutboxPublisher publisher,
+                       OutboxProperties properties, PlatformTransactionManager txManager, MeterRegistry meterRegistry) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.publisher = publisher;
+        this.properties = properties;
+        this.txTemplate = new TransactionTemplate(txManager);
+        this.published = meterRegistry.counter("springtx.outbox.published");
+        this.failed = meterRegistry.counter("springtx.outbox.failed");
+        this.parked = meterRegistry.counter("springtx.outbox.parked");
+    }
+
+    @Scheduled(fixedDelayString = "${springtx.outbox.poll-interval:PT1S}")
+    public void scheduledRelay() {
+        if (properties.isRelayEnabled()) {
+            relay();
+        }
+    }
+
+    /**
+     * 발행 대기 이벤트를 id 순서로 끝까지 한 번씩 읽어서 발행
+     * @return 발행한 이벤트 수
+     */
+    public int relay() {
+        int total = 0;
+        long afterId = 0;
+        Set<String> blockedKeys = new HashSet<>(); // 이번 주기에 실패한 aggregate
+        while (true) {
+            BatchResult result = relayBatch(afterId, blockedKeys);
+            total += result.published;
+            if (result.fetched < properties.getBatchSize()) {
+                return total;
+            }
+            afterId = result.lastId;
+        }
+    }
+
+    /**
+     * 보류된 aggregate 의 이벤트를 다시 발행 대상으로 돌린다. (실패 횟수 초기화)
+     * @return 보류를 푼 이벤트 수
+     */
+    public int retryParked(String aggregateType, String aggregateId) {
+        return txTemplate.execute(status -> outboxEventRepository.unpark(aggregateType, aggregateId));
+    }
+
+    private BatchResult relayBatch(long afterId, Set<String> blockedKeys) {
+        List<OutboxEvent> events = txTemplate.execute(status ->
+                outboxEventRepository.findPublishable(afterId, PageRequest.of(0, properties.getBatchSize())));
+        if (events.isEmpty()) {
+            return new BatchResult(0, afterId, 0);
+        }
+
+        List<Long> publishedIds = new ArrayList<>(events.size());
+        List<Long> failedIds = new ArrayList<>();
+        for (OutboxEvent event : events) {
+            if (blockedKeys.contains(event.orderingKey())) {
+                continue;
+            }
+            try {
+                publisher.publish(event);
+                publishedIds.add(event.getId());
+            } catch (Exception e) {
+                log.info("outbox 발행 실패, 다음 주기에 다시 발행 id={}, key={}, attempts={}",
+                        event.getId(), event.orderingKey(), event.getAttempts() + 1, e);
+                blockedKeys.add(event.orderingKey());
+                failedIds.add(event.getId());
+            }
+        }
+
+        int parkedCount = txTemplate.execute(status -> {
+            if (!publishedIds.isEmpty()) {
+                outboxEventRepository.markPublished(publishedIds, LocalDateTime.now());
+            }
+            if (failedIds.isEmpty()) {
+                return 0;
+            }
+            outboxEventRepository.incrementAttempts(failedIds);
+            return outboxEventRepository.parkExhausted(failedIds, properties.getMaxAttempts(), LocalDateTime.now());
+        });
+        if (parkedCount > 0) {
+            log.warn("outbox 발행 실패가 maxAttempts({}) 에 이르러 보류한 이벤트 수={}", properties.getMaxAttempts(), parkedCount);
+        }
+        published.increment(publishedIds.size());
+        failed.increment(failedIds.size());
+        parked.increment(parkedCount);
+        return new BatchResult(events.size(), events.get(events.size() - 1).getId(), publishedIds.size());
+    }
+
+    private static class BatchResult {
+        private final int fetched;
+        private final long lastId;
+        private final int published;
+
+        BatchResult(int fetched, long lastId, int published) {
+            this.fetched = fetched;
+            this.lastId = lastId;
+            this.published = published;
+        }
+    }
+}
@@ -1,23 +1,50 @@
 package com.study.springtx.propagation;
 
+import com.study.springtx.common.PooledLoSequenceGenerator;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.GenericGenerator;
 
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.PrePersist;
+import javax.persistence.Table;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_log_message", columnList = "message"),
+        @Index(name = "idx_log_bucket_message", columnList = "bucket, message")
+})
 @Getter @Setter
 @NoArgsConstructor
 public class Log {
 
-    @Id @GeneratedValue
+    @Id
+    @GeneratedValue(generator = PooledLoSequenceGenerator.NAME)
+    @GenericGenerator(name = PooledLoSequenceGenerator.NAME, strategy = PooledLoSequenceGenerator.STRATEGY)
     private Long id;
     private String message;
 
+    private LocalDateTime createdAt;
+
+    // 생성 일자. 기간 조회와 보관 기간 정리는 이 컬럼 범위로만 처리한다. (일 단위 파티션 키)
+    private LocalDate bucket;
+
     public Log(String message) {
         this.message = message;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    @PrePersist
+    void assignBucket() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+        bucket = createdAt.toLocalDate();
     }
 }
@@ -2,10 +2,15 @@ package com.study.springtx.propagation;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.annotations.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import javax.persistence.EntityManager;
+import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
 
 @Slf4j
@@ -13,9 +18,25 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class LogRepository {
     private final EntityManager em;
+    private final LogRetentionProperties retentionProperties;
 
     @Transactional
     public void save(Log logMessage) {
+        persist(logMessage);
+    }
+
+    /**
+     * 바깥 트랜잭션 안에서 savepoint 를 만들고 저장 (SavepointJpaTransactionManager)
+     * - 실패하면 savepoint 까지만 롤백하므로 바깥 트랜잭션은 계속 커밋할 수 있다.
+     * - REQUIRES_NEW 와 달리 같은 커넥션을 쓰고 커밋도 바깥 트랜잭션에서 한 번만 한다.
+     * - 바깥 트랜잭션이 롤백되면 로그도 함께 롤백된다.
+     */
+    @Transactional(propagation = Propagation.NESTED)
+    public void saveNested(Log logMessage) {
+        persist(logMessage);
+    }
+
+    private void persist(Log logMessage) {
         log.info("log 저장");
         em.persist(logMessage);
 
@@ -25,9 +46,54 @@ public class LogRepository {
         }
     }
 
+    // 보관 기간(springtx.log.retention.retention) 안의 bucket 만 조회한다. (idx_log_bucket_message, 오래된 파티션은 읽지 않음)
+    // 읽기 전용 트랜잭션에서는 스냅샷을 만들지 않고 flush 시 변경 감지 대상에서도 뺀다.
+    // 읽기-쓰기 트랜잭션에서는 조회한 엔티티의 변경이 DB 에 반영되어야 하므로 일반 조회로 둔다.
     public Optional<Log> find(String message) {
-        return em.createQuery("select l from Log l where l.message = :message", Log.class)
+        return em.createQuery("select l from Log l where l.bucket >= :from and l.message = :message", Log.class)
+                .setHint(QueryHints.READ_ONLY, TransactionSynchronizationManager.isCurrentTransactionReadOnly())
+                .setParameter("from", retentionStart())
                 .setParameter("message", message)
-                .getResultList().stream().findAny();
+                .setMaxResults(1)
+                .getResultList().stream().findFirst();
+    }
+
+    // 엔티티를 만들지 않고 첫 번째 행만 확인 (find() 와 같은 보관 기간 범위)
+    public boolean exists(String message) {
+        return !em.createQuery("select l.id from Log l where l.bucket >= :from and l.message = :message", Long.class)
+                .setParameter("from", retentionStart())
+                .setParameter("message", message)
+                .setMaxResults(1)
+                .getResultList().isEmpty();
+    }
+
+    // 보관 기간의 첫 bucket. LogRetentionJob 이 이보다 이전 bucket 을 삭제한다.
+    private LocalDate retentionStart() {
+        return LocalDate.now().minusDays(retentionProperties.getRetention().toDays());
+    }
+
+    // 기간 조회: bucket 범위로 먼저 좁힌다. (idx_log_bucket_message) 읽기 전용 힌트는 find() 와 같다.
+    public List<Log> findInRange(String message, LocalDate from, LocalDate to) {
+        return em.createQuery("select l from Log l where l.bucket between :from and :to and l.message = :message", Log.class)
+                .setHint(QueryHints.READ_ONLY, TransactionSynchronizationManager.isCurrentTransactionReadOnly())
+                .setParameter("from", from)
+                .setParameter("to", to)
+                .setParameter("message", message)
+                .getResultList();
+    }
+
+    // 보관 기간이 지난 로그의 ID (cutoff 일자 이전 bucket)
+    public List<Long> findIdsBefore(LocalDate cutoff, int limit) {
+        return em.createQuery("select l.id from Log l where l.bucket < :cutoff", Long.class)
+                .setParameter("cutoff", cutoff)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Transactional
+    public int deleteByIds(List<Long> ids) {
+        return em.createQuery("delete from Log l where l.id in :ids")
+                .setParameter("ids", ids)
+                .executeUpdate();
     }
 }
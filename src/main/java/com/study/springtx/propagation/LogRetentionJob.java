@@ -0,0 +1,89 @@
+package com.study.springtx.propagation;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 보관 기간이 지난 로그 삭제
+ * - batchSize 건씩 나누어 각자의 짧은 트랜잭션(REQUIRES_NEW)으로 삭제한다. 한 번에 삭제하면 오랫동안 락을 잡는다.
+ * - 삭제 대상은 bucket(생성 일자)으로만 찾는다.
+ * - 삭제 수는 springtx.log.purged 메트릭으로 확인한다.
+ */
+@Slf4j
+@Component
+public class LogRetentionJob {
+
+    private final LogRepository logRepository;
+    private final LogRetentionProperties properties;
+    private final TransactionTemplate txTemplate;
+    private final Counter purged;
+
+    public LogRetentionJob(LogRepository logRepository, LogRetentionProperties properties,
+                           PlatformTransactionManager txManager, MeterRegistry meterRegistry) {
+        this.logRepository = logRepository;
+        this.properties = properties;
+        this.txTemplate = new TransactionTemplate(txManager);
+        this.txTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.purged = Counter.builder("springtx.log.purged")
+                .description("보관 기간이 지나 삭제한 로그 수")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${springtx.log.retention.interval:PT1H}")
+    public void scheduledPurge() {
+        if (properties.isEnabled()) {
+            purgeExpired();
+        }
+    }
+
+    public long purgeExpired() {
+        return purgeBefore(LocalDate.now().minusDays(properties.getRetention().toDays()));
+    }
+
+    /**
+     * cutoff 일자 이전에 생성된 로그 삭제
+     * @return 삭제한 로그 수
+     */
+    public long purgeBefore(LocalDate cutoff) {
+        int batchSize = properties.getBatchSize();
+        long total = 0;
+        while (true) {
+            Integer deleted = txTemplate.execute(status -> {
+                List<Long> ids = logRepository.findIdsBefore(cutoff, batchSize);
+                return ids.isEmpty() ? 0 : logRepository.deleteByIds(ids);
+            });
+            total += deleted;
+            purged.increment(deleted);
+            if (deleted < batchSize) {
+                break;
+            }
+            pause();
+        }
+        if (total > 0) {
+            log.info("보관 기간이 지난 로그 삭제 cutoff={}, count={}", cutoff, total);
+        }
+        return total;
+    }
+
+    private void pause() {
+        long millis = properties.getBatchPause().toMillis();
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("로그 삭제 중 인터럽트", e);
+        }
+    }
+}
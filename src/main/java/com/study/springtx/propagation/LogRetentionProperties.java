@@ -0,0 +1,25 @@
+package com.study.springtx.propagation;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties("springtx.log.retention")
+public class LogRetentionProperties {
+
+    // true 면 보관 기간이 지난 로그를 주기적으로 삭제 (springtx.log.retention.interval, 기본 PT1H)
+    private boolean enabled = false;
+
+    // 보관 기간 (일 단위 bucket 으로 정리)
+    private Duration retention = Duration.ofDays(30);
+
+    // 한 트랜잭션에서 삭제할 최대 로그 수. 작을수록 락을 짧게 잡는다.
+    private int batchSize = 1000;
+
+    // 배치 사이 대기 시간 (다른 트랜잭션에 양보)
+    private Duration batchPause = Duration.ofMillis(10);
+}
@@ -0,0 +1,31 @@
+package com.study.springtx.propagation;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties("springtx.log.write-behind")
+public class LogWriteBehindProperties {
+
+    // true 면 회원 트랜잭션 커밋 후 로그를 큐에 넣고, 백그라운드에서 모아서 저장한다.
+    private boolean enabled = false;
+
+    // 큐에 쌓아둘 수 있는 최대 로그 수 (저장 중인 로그 포함). 가득 차면 offerTimeout 까지 기다린다.
+    private int queueCapacity = 10_000;
+
+    // 한 트랜잭션으로 저장할 최대 로그 수
+    private int flushSize = 100;
+
+    // 첫 로그가 들어온 뒤 flushSize 를 채울 때까지 기다리는 최대 시간
+    private Duration flushInterval = Duration.ofMillis(200);
+
+    // 큐 자리를 기다리는 최대 시간 (회원 트랜잭션 안). 넘으면 회원 트랜잭션 안에서 바로 저장한다.
+    private Duration offerTimeout = Duration.ofMillis(100);
+
+    // 종료 시 큐에 남은 로그를 저장하기 위해 기다리는 최대 시간
+    private Duration shutdownTimeout = Duration.ofSeconds(10);
+}
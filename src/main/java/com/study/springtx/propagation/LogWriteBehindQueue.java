@@ -0,0 +1,227 @@
+package com.study.springtx.propagation;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 로그 write-behind 큐
+ * - 로그는 현재 트랜잭션이 커밋된 후에만 큐에 들어간다. (롤백되면 로그도 남지 않는다)
+ * - 백그라운드 쓰레드가 flushSize 건씩 모아서 별도의 트랜잭션(REQUIRES_NEW)으로 저장한다.
+ * - 배치 저장이 실패하면 1건씩 다시 저장하고, 그래도 실패한 로그(로그 자체의 예외)는 남기지 않는다. (회원 데이터는 이미 커밋되어 있음)
+ * - 큐 자리는 커밋 전에 회원 트랜잭션 안에서 예약한다. 그래서 afterCommit 에서 큐에 넣을 때는 기다리거나 실패하지 않는다.
+ *   예약한 자리는 저장이 끝나거나 트랜잭션이 롤백되면 반환한다.
+ * - 자리가 없으면 offerTimeout 까지 기다리고(backpressure), 그래도 없거나 종료된 뒤면 회원 트랜잭션 안에서 바로 저장한다.
+ *   (커넥션을 더 쓰지 않고, 로그를 버리지 않는다) 바로 저장한 수는 springtx.log.write-behind.sync-saved 로 센다.
+ */
+@Slf4j
+@Component
+public class LogWriteBehindQueue implements SmartLifecycle {
+
+    private final LogRepository logRepository;
+    private final LogWriteBehindProperties properties;
+    private final TransactionTemplate txTemplate;
+    private final BlockingQueue<Log> queue;
+    private final Semaphore slots; // 예약 가능한 큐 자리 (예약 ~ 저장 완료)
+    private final Counter syncSaved;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public LogWriteBehindQueue(LogRepository logRepository, PlatformTransactionManager txManager,
+                               LogWriteBehindProperties properties, MeterRegistry meterRegistry) {
+        this.logRepository = logRepository;
+        this.properties = properties;
+        this.txTemplate = new TransactionTemplate(txManager);
+        this.txTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        this.slots = new Semaphore(properties.getQueueCapacity());
+        this.syncSaved = Counter.builder("springtx.log.write-behind.sync-saved")
+                .description("큐 자리가 없어서 회원 트랜잭션 안에서 바로 저장한 로그 수")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public int size() {
+        return queue.size();
+    }
+
+    public long syncSaved() {
+        return (long) syncSaved.count();
+    }
+
+    /**
+     * 트랜잭션 안이면 커밋 후에 큐에 넣고, 롤백되면 넣지 않는다.
+     * - 큐 자리를 예약하지 못하면 현재 트랜잭션에서 바로 저장한다. (로그 저장 예외는 호출자에게 그대로 전달)
+     */
+    public void enqueue(Log logMessage) {
+        if (!reserve()) {
+            saveNow(logMessage);
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    add(logMessage);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        slots.release();
+                    }
+                }
+            });
+        } else {
+            add(logMessage);
+        }
+    }
+
+    private boolean reserve() {
+        if (!running) {
+            return false;
+        }
+        try {
+            if (!slots.tryAcquire(properties.getOfferTimeout().toNanos(), TimeUnit.NANOSECONDS)) {
+                return false;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        // 예약 직전에 종료되었으면 writer 가 이 자리를 기다리지 않고 끝났을 수 있다.
+        if (!running) {
+            slots.release();
+            return false;
+        }
+        return true;
+    }
+
+    // 예약한 자리만큼만 넣으므로 큐는 가득 차지 않는다.
+    private void add(Log logMessage) {
+        if (!queue.offer(logMessage)) {
+            throw new IllegalStateException("예약한 log 큐 자리가 없습니다.");
+        }
+    }
+
+    private void saveNow(Log logMessage) {
+        syncSaved.increment();
+        log.info("log 큐 자리가 없어서 바로 저장합니다. running={}", running);
+        logRepository.save(logMessage);
+    }
+
+    private void writeLoop() {
+        List<Log> batch = new ArrayList<>(properties.getFlushSize());
+        // 종료 후에도 예약된 자리(커밋 대기 중인 로그 포함)가 모두 반환될 때까지 저장한다.
+        while (running || slots.availablePermits() < properties.getQueueCapacity()) {
+            try {
+                collect(batch);
+                if (!batch.isEmpty()) {
+                    flush(batch);
+                    slots.release(batch.size());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void collect(List<Log> batch) throws InterruptedException {
+        long intervalNanos = properties.getFlushInterval().toNanos();
+        Log first = queue.poll(intervalNanos, TimeUnit.NANOSECONDS);
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+
+        long deadline = System.nanoTime() + intervalNanos;
+        int flushSize = properties.getFlushSize();
+        while (batch.size() < flushSize) {
+            queue.drainTo(batch, flushSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= flushSize || remaining <= 0 || !running) {
+                return;
+            }
+            Log next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void flush(List<Log> batch) {
+        try {
+            txTemplate.executeWithoutResult(status -> batch.forEach(logRepository::save));
+            log.info("log 배치 저장 size={}", batch.size());
+        } catch (RuntimeException e) {
+            log.info("log 배치 저장 실패, 1건씩 다시 저장합니다. size={}", batch.size());
+            batch.forEach(this::saveDirectly);
+        }
+    }
+
+    private void saveDirectly(Log logMessage) {
+        logMessage.setId(null); // 롤백된 배치에서 할당된 ID 제거
+        try {
+            txTemplate.executeWithoutResult(status -> logRepository.save(logMessage));
+        } catch (RuntimeException e) {
+            log.info("log 저장에 실패했습니다. logMessage={}", logMessage.getMessage());
+        }
+    }
+
+    @Override
+    public boolean isAutoStartup() {
+        return properties.isEnabled();
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        writer = new Thread(this::writeLoop, "log-write-behind");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.join(properties.getShutdownTimeout().toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        int pending = properties.getQueueCapacity() - slots.availablePermits();
+        if (pending > 0) {
+            log.warn("종료 시간 안에 저장하지 못한 log size={} (writer 는 데몬 쓰레드로 계속 저장)", pending);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
@@ -1,19 +1,26 @@
 package com.study.springtx.propagation;
 
+import com.study.springtx.common.PooledLoSequenceGenerator;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.GenericGenerator;
 
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
 
 @Entity
+@Table(indexes = @Index(name = "idx_member_username", columnList = "username"))
 @Getter @Setter
 @NoArgsConstructor
 public class Member {
 
-    @Id @GeneratedValue
+    @Id
+    @GeneratedValue(generator = PooledLoSequenceGenerator.NAME)
+    @GenericGenerator(name = PooledLoSequenceGenerator.NAME, strategy = PooledLoSequenceGenerator.STRATEGY)
     private Long id;
     private String username;
 
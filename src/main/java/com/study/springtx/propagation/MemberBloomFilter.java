@@ -0,0 +1,163 @@
+package com.study.springtx.propagation;
+
+import com.study.springtx.common.BloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.annotations.QueryHints;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.stream.Stream;
+
+/**
+ * 가입한 username 의 Bloom filter
+ * - mightContain 이 false 면 없는 회원이므로 DB 조회를 하지 않는다. (가입 가능 여부 확인 등 대부분 없는 이름을 조회)
+ * - 시작 시(ApplicationReadyEvent) 전체 username 으로 만들고, 주기적으로 다시 만들어서 오탐을 줄이고 크기를 회원 수에 맞춘다.
+ * - 적재 전이거나 꺼져 있으면 모든 이름이 있을 수 있다고 답한다. (DB 조회)
+ * - 저장 시 바로 넣고, 커밋 후에 한 번 더 넣는다.
+ *   바로 넣으면 커밋 직후 조회도 놓치지 않고, 커밋 후에 넣으면 다시 만드는 중에 커밋된 회원도 새 필터에 들어간다.
+ *   롤백된 회원은 오탐으로 남았다가 다시 만들 때 빠진다.
+ * - springtx.member.bloom.* 메트릭으로 메모리 사용량, 추정 오탐 비율, 조회 결과(negative/positive/false.positive)를 확인한다.
+ */
+@Slf4j
+@Component
+public class MemberBloomFilter {
+
+    private final MemberBloomFilterProperties properties;
+    private final EntityManager em;
+    private final TransactionTemplate readOnlyTx;
+
+    private volatile BloomFilter current; // null 이면 적재 전
+    private volatile BloomFilter building; // 다시 만드는 중인 필터 (저장된 username 을 같이 넣는다)
+
+    private final Counter negatives;
+    private final Counter positives;
+    private final Counter falsePositives;
+
+    public MemberBloomFilter(MemberBloomFilterProperties properties, EntityManager em,
+                             PlatformTransactionManager txManager, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.em = em;
+        this.readOnlyTx = new TransactionTemplate(txManager);
+        this.readOnlyTx.setReadOnly(true);
+
+        Gauge.builder("springtx.member.bloom.memory", this, f -> f.current == null ? 0 : f.current.sizeInBytes())
+                .description("회원 Bloom filter 크기")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("springtx.member.bloom.fpp", this, f -> f.current == null ? 0 : f.current.expectedFalsePositiveRate())
+                .description("채워진 비트로 추정한 오탐 비율")
+                .register(meterRegistry);
+        this.negatives = Counter.builder("springtx.member.bloom.lookups")
+                .description("Bloom filter 로 DB 조회를 건너뛴 수")
+                .tag("result", "negative")
+                .register(meterRegistry);
+        this.positives = Counter.builder("springtx.member.bloom.lookups")
+                .tag("result", "positive")
+                .register(meterRegistry);
+        this.falsePositives = Counter.builder("springtx.member.bloom.lookups")
+                .tag("result", "false.positive")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (properties.isEnabled()) {
+            rebuild();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${springtx.member.bloom.rebuild-interval:PT1H}")
+    public void scheduledRebuild() {
+        if (properties.isEnabled()) {
+            rebuild();
+        }
+    }
+
+    /**
+     * 전체 username 으로 새 필터를 만들어서 교체
+     * - 만드는 동안 저장된 username 은 put 에서 새 필터에도 넣는다.
+     */
+    public synchronized void rebuild() {
+        long memberCount = readOnlyTx.execute(status ->
+                em.createQuery("select count(m) from Member m", Long.class).getSingleResult());
+        long expectedInsertions = Math.max(properties.getExpectedInsertions(), memberCount * 2);
+        BloomFilter filter = BloomFilter.create(expectedInsertions, properties.getFalsePositiveRate());
+
+        building = filter;
+        try {
+            readOnlyTx.executeWithoutResult(status -> {
+                try (Stream<String> usernames = em.createQuery("select m.username from Member m", String.class)
+                        .setHint(QueryHints.FETCH_SIZE, 1000)
+                        .getResultStream()) {
+                    usernames.forEach(filter::put);
+                }
+            });
+            current = filter;
+        } finally {
+            building = null;
+        }
+        log.info("회원 Bloom filter 생성 members={}, bits={}, hashes={}, bytes={}",
+                memberCount, filter.bitSize(), filter.hashCount(), filter.sizeInBytes());
+    }
+
+    /**
+     * false 면 없는 회원이다. true 면 DB 에서 확인해야 한다.
+     */
+    public boolean mightContain(String username) {
+        BloomFilter filter = current;
+        if (!properties.isEnabled() || filter == null) {
+            return true;
+        }
+        if (filter.mightContain(username)) {
+            positives.increment();
+            return true;
+        }
+        negatives.increment();
+        return false;
+    }
+
+    // mightContain 이 true 였지만 DB 에 없었던 조회
+    public void recordFalsePositive() {
+        if (properties.isEnabled() && current != null) {
+            falsePositives.increment();
+        }
+    }
+
+    public void put(String username) {
+        add(username);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    add(username);
+                }
+            });
+        }
+    }
+
+    // building 을 먼저 읽는다: building 이 null 이면 교체가 끝났으므로 current 는 새 필터다.
+    private void add(String username) {
+        BloomFilter rebuilding = building;
+        BloomFilter filter = current;
+        if (rebuilding != null) {
+            rebuilding.put(username);
+        }
+        if (filter != null) {
+            filter.put(username);
+        }
+    }
+}
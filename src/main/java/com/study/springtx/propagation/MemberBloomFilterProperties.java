@@ -0,0 +1,20 @@
+package com.study.springtx.propagation;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties("springtx.member.bloom")
+public class MemberBloomFilterProperties {
+
+    // true 면 없는 username 조회를 DB 조회 없이 끝낸다.
+    private boolean enabled = false;
+
+    // 필터 크기를 정할 때 가정하는 최소 회원 수 (다시 만들 때 회원 수의 2배보다 작으면 2배로 잡는다)
+    private long expectedInsertions = 100_000;
+
+    // 목표 오탐 비율 (작을수록 메모리를 더 쓴다)
+    private double falsePositiveRate = 0.01;
+}
@@ -0,0 +1,91 @@
+package com.study.springtx.propagation;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+
+/**
+ * username 으로 조회한 회원 캐시
+ * - 캐시 반영은 트랜잭션 커밋 이후(afterCommit)에만 한다. 롤백된 회원은 캐시에 남지 않는다.
+ * - 트랜잭션 밖에서 조회한 결과는 이미 커밋된 데이터이므로 바로 반영한다.
+ * - 캐시로 응답하는 것은 트랜잭션 밖이나 읽기 전용 트랜잭션의 조회뿐이다. (isReadable)
+ *   읽기-쓰기 트랜잭션은 자신이 본 데이터로 판단해야 하므로 항상 DB 를 조회한다.
+ * - 캐시에서 꺼낸 회원은 준영속(detached) 복사본이다. 변경해도 DB에 반영되지 않는다.
+ * - 무효화(evict)는 하지 않는다. 회원은 가입(INSERT)만 하고 username 변경이나 삭제 경로가 없어서
+ *   커밋된 항목이 틀려질 일이 없다. 변경/삭제를 추가하면 그 무효화도 afterCommit 에서 해야 한다.
+ * - hit/miss/eviction 수는 actuator metrics (cache.gets, cache.evictions, cache=member) 로 확인한다.
+ */
+@Component
+public class MemberCache {
+
+    private final MemberCacheProperties properties;
+    private final Cache<String, CachedMember> cache;
+
+    public MemberCache(MemberCacheProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "member");
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    // 캐시로 응답해도 되는지: 캐시를 켰고, 트랜잭션 밖이거나 읽기 전용 트랜잭션
+    public boolean isReadable() {
+        return properties.isEnabled()
+                && (!TransactionSynchronizationManager.isActualTransactionActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly());
+    }
+
+    public Optional<Member> get(String username) {
+        CachedMember cached = cache.getIfPresent(username);
+        return cached == null ? Optional.empty() : Optional.of(cached.toMember());
+    }
+
+    public void putAfterCommit(Member member) {
+        CachedMember cached = new CachedMember(member.getId(), member.getUsername());
+        afterCommit(() -> cache.put(cached.username, cached));
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class CachedMember {
+        private final Long id;
+        private final String username;
+
+        Member toMember() {
+            Member member = new Member(username);
+            member.setId(id);
+            return member;
+        }
+    }
+}
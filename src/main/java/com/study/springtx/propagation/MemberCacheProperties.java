@@ -0,0 +1,22 @@
+package com.study.springtx.propagation;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties("springtx.member.cache")
+public class MemberCacheProperties {
+
+    // 기본은 끔. 켜면 트랜잭션 밖이나 읽기 전용 트랜잭션의 조회만 캐시로 응답한다.
+    private boolean enabled = false;
+
+    // 캐시에 보관할 최대 회원 수
+    private long maximumSize = 10_000;
+
+    // 저장 후 만료까지의 시간
+    private Duration ttl = Duration.ofMinutes(10);
+}
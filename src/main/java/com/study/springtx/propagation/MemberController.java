@@ -0,0 +1,34 @@
+package com.study.springtx.propagation;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * POST /members {"username": "..."} -> joinGrouped (회원과 로그를 한 트랜잭션으로 저장, 그룹 커밋을 켜면 동시 요청을 모아서 커밋)
+ */
+@RestController
+@RequestMapping("/members")
+@RequiredArgsConstructor
+public class MemberController {
+
+    private final MemberService memberService;
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public void join(@RequestBody JoinRequest request) {
+        memberService.joinGrouped(request.getUsername());
+    }
+
+    @Getter
+    @Setter
+    public static class JoinRequest {
+        private String username;
+    }
+}
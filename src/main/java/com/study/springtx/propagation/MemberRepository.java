@@ -1,11 +1,16 @@
 package com.study.springtx.propagation;
 
+import com.study.springtx.outbox.Outbox;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.annotations.QueryHints;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import javax.persistence.EntityManager;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Optional;
 
 @Repository
@@ -14,16 +19,72 @@ import java.util.Optional;
 public class MemberRepository {
 
     private final EntityManager em;
+    private final MemberCache memberCache;
+    private final MemberBloomFilter memberBloomFilter;
+    private final Outbox outbox;
 
     @Transactional
     public void save(Member member) {
         log.info("member 저장");
         em.persist(member);
+        if (memberCache.isEnabled()) {
+            memberCache.putAfterCommit(member);
+        }
+        memberBloomFilter.put(member.getUsername());
+        outbox.append("member", member.getId(), "MemberJoined", payload(member));
+    }
+
+    private Map<String, Object> payload(Member member) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("id", member.getId());
+        payload.put("username", member.getUsername());
+        return payload;
     }
 
     public Optional<Member> find(String username) {
+        if (memberCache.isReadable()) {
+            Optional<Member> cached = memberCache.get(username);
+            if (cached.isPresent()) {
+                return cached;
+            }
+        }
+        if (!memberBloomFilter.mightContain(username)) {
+            return Optional.empty();
+        }
+        Optional<Member> member = findFromDb(username);
+        if (member.isEmpty()) {
+            memberBloomFilter.recordFalsePositive();
+        } else if (memberCache.isEnabled()) {
+            memberCache.putAfterCommit(member.get());
+        }
+        return member;
+    }
+
+    // 읽기 전용 트랜잭션에서는 스냅샷을 만들지 않고 flush 시 변경 감지 대상에서도 뺀다.
+    // 읽기-쓰기 트랜잭션에서는 조회한 엔티티의 변경이 DB 에 반영되어야 하므로 일반 조회로 둔다.
+    private Optional<Member> findFromDb(String username) {
         return em.createQuery("select m from Member m where m.username=:username", Member.class)
+                .setHint(QueryHints.READ_ONLY, TransactionSynchronizationManager.isCurrentTransactionReadOnly())
+                .setParameter("username", username)
+                .setMaxResults(1)
+                .getResultList().stream().findFirst();
+    }
+
+    // 엔티티를 만들지 않고 첫 번째 행만 확인
+    public boolean exists(String username) {
+        if (memberCache.isReadable() && memberCache.get(username).isPresent()) {
+            return true;
+        }
+        if (!memberBloomFilter.mightContain(username)) {
+            return false;
+        }
+        boolean exists = !em.createQuery("select m.id from Member m where m.username=:username", Long.class)
                 .setParameter("username", username)
-                .getResultList().stream().findAny();
+                .setMaxResults(1)
+                .getResultList().isEmpty();
+        if (!exists) {
+            memberBloomFilter.recordFalsePositive();
+        }
+        return exists;
     }
 }
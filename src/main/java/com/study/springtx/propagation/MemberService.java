@@ -1,5 +1,6 @@
 package com.study.springtx.propagation;
 
+import com.study.springtx.tx.GroupCommitExecutor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -12,10 +13,28 @@ public class MemberService {
 
     private final MemberRepository memberRepository;
     private final LogRepository logRepository;
+    private final LogWriteBehindQueue logWriteBehindQueue;
+    private final GroupCommitExecutor groupCommitExecutor;
 
     // 회원과 DB로그 함께 남김 (트랜잭션 처리 하지 않음)
     @Transactional
     public void joinV1(String username) {
+        saveMemberAndLog(username);
+    }
+
+    /**
+     * joinV1 과 같은 결과를 그룹 커밋으로 처리 (springtx.tx.group-commit.enabled=true)
+     * - 동시에 들어온 가입 요청을 한 번에 커밋한다. 로그 저장이 실패하면 이 요청의 회원과 로그만 롤백된다.
+     * - 비활성화되어 있으면 joinV1 과 같이 요청마다 트랜잭션을 커밋한다.
+     */
+    public void joinGrouped(String username) {
+        groupCommitExecutor.execute(status -> {
+            saveMemberAndLog(username);
+            return null;
+        });
+    }
+
+    private void saveMemberAndLog(String username) {
         Member member = new Member(username);
         Log logMessage = new Log(username);
 
@@ -24,7 +43,7 @@ public class MemberService {
         log.info("== memberRepository 호출 종료 ==");
 
         log.info("== logRepository 호출 시작 ==");
-        logRepository.save(logMessage);
+        saveLog(logMessage);
         log.info("== logRepository 호출 종료 ==");
     }
 
@@ -39,11 +58,44 @@ public class MemberService {
 
         log.info("== logRepository 호출 시작 ==");
         try {
-            logRepository.save(logMessage);
+            saveLog(logMessage);
+        } catch (RuntimeException e) {
+            log.info("log 저장에 실패했습니다. logMessage={}", logMessage.getMessage());
+            log.info("정상 흐름 변환");
+        }
+        log.info("== logRepository 호출 종료 ==");
+    }
+
+    /**
+     * joinV2 와 같이 로그 저장 실패를 복구하지만 한 트랜잭션으로 처리
+     * - 로그 저장은 NESTED(savepoint)로 실행해서 실패하면 로그만 롤백하고 회원은 커밋한다.
+     * - REQUIRES_NEW 로 분리하면 가입마다 커넥션 2개와 커밋 2번이 필요하지만, NESTED 는 커넥션 1개와 커밋 1번이다.
+     */
+    @Transactional
+    public void joinV3(String username) {
+        Member member = new Member(username);
+        Log logMessage = new Log(username);
+
+        log.info("== memberRepository 호출 시작 ==");
+        memberRepository.save(member);
+        log.info("== memberRepository 호출 종료 ==");
+
+        log.info("== logRepository 호출 시작 ==");
+        try {
+            logRepository.saveNested(logMessage);
         } catch (RuntimeException e) {
             log.info("log 저장에 실패했습니다. logMessage={}", logMessage.getMessage());
             log.info("정상 흐름 변환");
         }
         log.info("== logRepository 호출 종료 ==");
     }
+
+    // write-behind 모드면 커밋 후 큐에 넣고, 아니면 바로 저장
+    private void saveLog(Log logMessage) {
+        if (logWriteBehindQueue.isEnabled()) {
+            logWriteBehindQueue.enqueue(logMessage);
+        } else {
+            logRepository.save(logMessage);
+        }
+    }
 }
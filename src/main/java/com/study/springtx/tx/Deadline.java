@@ -0,0 +1,98 @@
+package com.study.springtx.tx;
+
+import java.time.Duration;
+
+/**
+ * 요청 단위 시간 예산 (현재 쓰레드)
+ * - DeadlineTransactionManager 가 남은 시간을 새 트랜잭션의 timeout 으로 사용하고, 다 쓴 경우 트랜잭션을 시작하지 않는다.
+ * - DeadlineStatementTimeoutDataSource 가 남은 시간을 SQL 의 query timeout 으로 사용한다.
+ * - 범위를 중첩하면 더 이른 마감 시각을 사용한다. (안쪽에서 예산을 늘릴 수 없다)
+ *
+ * <pre>
+ * try (Deadline.Scope scope = Deadline.open(Duration.ofSeconds(2))) {
+ *     memberService.joinV1(username);
+ * }
+ * </pre>
+ */
+public final class Deadline {
+
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    private final long deadlineNanos;
+
+    private Deadline(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    public static Deadline after(Duration budget) {
+        return new Deadline(System.nanoTime() + budget.toNanos());
+    }
+
+    // 현재 쓰레드의 마감 시각. 없으면 null
+    public static Deadline current() {
+        return CURRENT.get();
+    }
+
+    public static Scope open(Duration budget) {
+        return open(after(budget));
+    }
+
+    public static Scope open(Deadline deadline) {
+        Deadline previous = CURRENT.get();
+        CURRENT.set(earlier(previous, deadline));
+        return new Scope(previous);
+    }
+
+    // 더 이른 마감 시각. 한쪽이 null 이면 다른 쪽
+    public static Deadline earlier(Deadline a, Deadline b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        return b.deadlineNanos - a.deadlineNanos < 0 ? b : a;
+    }
+
+    public Duration remaining() {
+        return Duration.ofNanos(deadlineNanos - System.nanoTime());
+    }
+
+    public boolean isExpired() {
+        return deadlineNanos - System.nanoTime() <= 0;
+    }
+
+    /**
+     * 남은 시간을 초 단위로 올림 (트랜잭션/JDBC timeout 은 초 단위)
+     * - 남은 시간이 있으면 1 이상이다.
+     */
+    public int remainingSeconds() {
+        long remainingNanos = deadlineNanos - System.nanoTime();
+        if (remainingNanos <= 0) {
+            return 0;
+        }
+        long seconds = (remainingNanos + 999_999_999L) / 1_000_000_000L;
+        return (int) Math.min(Integer.MAX_VALUE, seconds);
+    }
+
+    /**
+     * 범위를 닫으면 이전 마감 시각으로 되돌린다.
+     */
+    public static final class Scope implements AutoCloseable {
+
+        private final Deadline previous;
+
+        private Scope(Deadline previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.study.springtx.tx;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.TransactionTimedOutException;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+import org.springframework.transaction.support.DelegatingTransactionDefinition;
+
+/**
+ * 요청의 남은 시간 예산(Deadline)을 트랜잭션 timeout 으로 사용하는 트랜잭션 매니저
+ * - Deadline 범위 안에서 시작하는 물리 트랜잭션(REQUIRES_NEW 포함)의 timeout 을 남은 시간으로 줄인다.
+ *   @Transactional(timeout) 이 더 짧으면 그 값을 유지한다.
+ * - timeout 은 JPA/JDBC 가 각 SQL 의 query timeout 으로도 사용한다. (트랜잭션 시작부터 남은 시간)
+ * - 예산을 다 쓴 상태에서는 트랜잭션을 시작하거나 참여하지 않고 TransactionTimedOutException 을 던진다.
+ * - 참여(REQUIRED 등)하는 트랜잭션은 바깥 트랜잭션의 timeout 을 그대로 사용한다.
+ */
+@Slf4j
+public class DeadlineTransactionManager extends DelegatingTransactionManager {
+
+    public DeadlineTransactionManager(PlatformTransactionManager delegate) {
+        super(delegate);
+    }
+
+    @Override
+    public TransactionStatus getTransaction(TransactionDefinition definition) throws TransactionException {
+        Deadline deadline = Deadline.current();
+        if (deadline == null) {
+            return super.getTransaction(definition);
+        }
+        int remainingSeconds = deadline.remainingSeconds();
+        if (remainingSeconds == 0) {
+            log.info("요청 시간 예산을 모두 사용해서 트랜잭션을 시작하지 않습니다. method={}", Propagations.methodName(definition));
+            throw new TransactionTimedOutException("요청 시간 예산(deadline)을 모두 사용해서 트랜잭션을 시작하지 않습니다.");
+        }
+        return super.getTransaction(withTimeout(definition, remainingSeconds));
+    }
+
+    private static TransactionDefinition withTimeout(TransactionDefinition definition, int remainingSeconds) {
+        TransactionDefinition target = definition == null ? new DefaultTransactionDefinition() : definition;
+        int timeout = target.getTimeout() == TransactionDefinition.TIMEOUT_DEFAULT
+                ? remainingSeconds
+                : Math.min(target.getTimeout(), remainingSeconds);
+        return new DelegatingTransactionDefinition(target) {
+            @Override
+            public int getTimeout() {
+                return timeout;
+            }
+        };
+    }
+}
@@ -0,0 +1,47 @@
+package com.study.springtx.tx;
+
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.ResourceTransactionManager;
+
+/**
+ * 실제 트랜잭션 매니저를 감싸는 데코레이터의 기본 클래스
+ * - ResourceTransactionManager 도 위임한다. (감싼 매니저의 리소스 팩토리로 같은 트랜잭션인지 판단하는 코드가 있음)
+ */
+public class DelegatingTransactionManager implements ResourceTransactionManager {
+
+    private final PlatformTransactionManager delegate;
+
+    public DelegatingTransactionManager(PlatformTransactionManager delegate) {
+        this.delegate = delegate;
+    }
+
+    public PlatformTransactionManager getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public Object getResourceFactory() {
+        if (!(delegate instanceof ResourceTransactionManager)) {
+            throw new IllegalStateException("리소스 트랜잭션 매니저가 아닙니다. delegate=" + delegate.getClass().getName());
+        }
+        return ((ResourceTransactionManager) delegate).getResourceFactory();
+    }
+
+    @Override
+    public TransactionStatus getTransaction(TransactionDefinition definition) throws TransactionException {
+        return delegate.getTransaction(definition);
+    }
+
+    @Override
+    public void commit(TransactionStatus status) throws TransactionException {
+        delegate.commit(status);
+    }
+
+    @Override
+    public void rollback(TransactionStatus status) throws TransactionException {
+        delegate.rollback(status);
+    }
+}
@@ -0,0 +1,253 @@
+package com.study.springtx.tx;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 그룹 커밋
+ * - 짧은 시간(maxWait) 안에 동시에 들어온 요청(최대 maxGroupSize)을 하나의 물리 트랜잭션에서 실행하고 한 번만 커밋한다.
+ * - 요청마다 NESTED(savepoint)로 실행해서, 한 요청이 실패하면 그 요청의 작업만 savepoint 로 롤백된다.
+ * - 호출자는 공유 트랜잭션 커밋이 성공한 후에 자신의 결과(또는 예외)를 받는다.
+ * - 커밋 자체가 실패하면 그룹의 요청을 각자의 트랜잭션으로 다시 실행한다.
+ * - 트랜잭션은 전용 쓰레드에서 실행된다. 호출 쓰레드의 ThreadLocal(MDC 등)은 전달되지 않는다.
+ *   단, 요청의 Deadline 은 함께 전달한다. 공유 트랜잭션은 그룹에서 가장 이른 마감 시각을 사용하고,
+ *   이미 예산을 다 쓴 요청은 그룹에 넣지 않고 각자 실행해서 바로 실패한다. (TransactionTimedOutException)
+ * - 이미 트랜잭션 안에서 호출하거나 비활성화된 경우에는 호출한 쓰레드에서 바로 실행한다. (REQUIRED)
+ * - 종료 시 shutdownTimeout 안에 그룹이 끝나지 않으면(DB 응답 없음 등) 커밋 쓰레드를 인터럽트하고,
+ *   실행 중인 그룹과 대기 중인 요청을 예외로 끝낸다. (호출자가 끝없이 기다리지 않도록, 결과는 알 수 없음)
+ * - 그룹 크기는 springtx.tx.group.size 메트릭으로 확인한다.
+ */
+@Slf4j
+@Component
+public class GroupCommitExecutor implements SmartLifecycle {
+
+    private final GroupCommitProperties properties;
+    private final TransactionTemplate txTemplate;
+    private final TransactionTemplate nestedTxTemplate;
+    private final BlockingQueue<Task<?>> queue;
+    private final DistributionSummary groupSize;
+
+    private volatile boolean running;
+    private volatile List<Task<?>> inFlight = List.of(); // 커밋 쓰레드가 실행 중인 그룹
+    private Thread committer;
+
+    public GroupCommitExecutor(PlatformTransactionManager txManager, GroupCommitProperties properties,
+                               MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.txTemplate = new TransactionTemplate(txManager);
+        this.nestedTxTemplate = new TransactionTemplate(txManager);
+        this.nestedTxTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_NESTED);
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        this.groupSize = DistributionSummary.builder("springtx.tx.group.size")
+                .description("한 번에 커밋한 요청 수")
+                .register(meterRegistry);
+    }
+
+    public <T> T execute(TransactionCallback<T> action) {
+        if (!running || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return txTemplate.execute(action);
+        }
+
+        Task<T> task = new Task<>(action);
+        try {
+            queue.put(task);
+            // stop() 이 마지막으로 큐를 비운 뒤에 넣었으면 아무도 꺼내지 않는다. 아직 큐에 있으면 직접 실행
+            if (!running && queue.remove(task)) {
+                return txTemplate.execute(action);
+            }
+            return task.result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("그룹 커밋 대기 중 인터럽트", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    private void commitLoop() {
+        List<Task<?>> group = new ArrayList<>(properties.getMaxGroupSize());
+        while (running || !queue.isEmpty()) {
+            try {
+                collect(group);
+                if (!group.isEmpty()) {
+                    commit(group);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                group.clear();
+            }
+        }
+    }
+
+    private void collect(List<Task<?>> group) throws InterruptedException {
+        Task<?> first = queue.poll(100, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return;
+        }
+        group.add(first);
+
+        long deadline = System.nanoTime() + properties.getMaxWait().toNanos();
+        int maxGroupSize = properties.getMaxGroupSize();
+        while (group.size() < maxGroupSize) {
+            queue.drainTo(group, maxGroupSize - group.size());
+            long remaining = deadline - System.nanoTime();
+            if (group.size() >= maxGroupSize || remaining <= 0) {
+                return;
+            }
+            Task<?> next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            group.add(next);
+        }
+    }
+
+    private void commit(List<Task<?>> group) {
+        // 예산을 다 쓴 요청이 그룹 전체의 트랜잭션을 실패시키지 않도록 먼저 각자 실행한다.
+        group.removeIf(task -> {
+            if (task.deadline == null || !task.deadline.isExpired()) {
+                return false;
+            }
+            task.run(txTemplate);
+            task.complete();
+            return true;
+        });
+        if (group.isEmpty()) {
+            return;
+        }
+        groupSize.record(group.size());
+        inFlight = List.copyOf(group);
+        try (Deadline.Scope scope = openEarliestDeadline(group)) {
+            txTemplate.executeWithoutResult(status -> group.forEach(task -> task.run(nestedTxTemplate)));
+        } catch (RuntimeException | Error e) {
+            log.info("그룹 커밋 실패, 요청별 트랜잭션으로 다시 실행합니다. size={}", group.size(), e);
+            group.forEach(task -> {
+                task.run(txTemplate);
+                task.complete();
+            });
+            return;
+        } finally {
+            inFlight = List.of();
+        }
+        group.forEach(Task::complete);
+    }
+
+    // 공유 트랜잭션의 timeout 은 그룹에서 가장 이른 마감 시각으로 정한다. 마감 시각이 없으면 null (try-with-resources 에서 무시)
+    private static Deadline.Scope openEarliestDeadline(List<Task<?>> group) {
+        Deadline earliest = null;
+        for (Task<?> task : group) {
+            earliest = Deadline.earlier(earliest, task.deadline);
+        }
+        return earliest == null ? null : Deadline.open(earliest);
+    }
+
+    @Override
+    public boolean isAutoStartup() {
+        return properties.isEnabled();
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        committer = new Thread(this::commitLoop, "group-commit");
+        committer.setDaemon(true);
+        committer.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (committer == null) {
+            return;
+        }
+        try {
+            committer.join(properties.getShutdownTimeout().toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (committer.isAlive()) {
+            log.warn("그룹 커밋이 종료 시간 안에 끝나지 않아서 커밋 쓰레드를 인터럽트합니다. inFlight={}, queued={}",
+                    inFlight.size(), queue.size());
+            committer.interrupt();
+            IllegalStateException failure = new IllegalStateException("그룹 커밋 종료 시간 초과로 결과를 알 수 없습니다.");
+            inFlight.forEach(task -> task.fail(failure));
+            Task<?> task;
+            while ((task = queue.poll()) != null) {
+                task.fail(failure);
+            }
+            return;
+        }
+        // 종료 직전에 들어온 요청은 각자의 트랜잭션으로 실행 (이후에 들어온 요청은 execute() 가 직접 실행)
+        Task<?> task;
+        while ((task = queue.poll()) != null) {
+            task.run(txTemplate);
+            task.complete();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private static class Task<T> {
+        private final TransactionCallback<T> action;
+        private final Deadline deadline = Deadline.current(); // 호출 쓰레드의 마감 시각
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private T value;
+        private Throwable failure;
+
+        Task(TransactionCallback<T> action) {
+            this.action = action;
+        }
+
+        // 결과는 커밋이 끝난 후 complete() 에서 전달
+        void run(TransactionTemplate template) {
+            try (Deadline.Scope scope = deadline == null ? null : Deadline.open(deadline)) {
+                value = template.execute(action);
+                failure = null;
+            } catch (RuntimeException | Error e) {
+                value = null;
+                failure = e;
+            }
+        }
+
+        // 이미 결과를 전달했으면 무시된다.
+        void fail(Throwable e) {
+            result.completeExceptionally(e);
+        }
+
+        void complete() {
+            if (failure != null) {
+                result.completeExceptionally(failure);
+            } else {
+                result.complete(value);
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.study.springtx.tx;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties("springtx.tx.group-commit")
+public class GroupCommitProperties {
+
+    // false 면 요청마다 각자의 트랜잭션으로 실행
+    private boolean enabled = false;
+
+    // 한 트랜잭션으로 묶을 최대 요청 수
+    private int maxGroupSize = 32;
+
+    // 첫 요청 이후 다른 요청을 기다리는 최대 시간
+    private Duration maxWait = Duration.ofMillis(5);
+
+    // 대기 중인 요청 수 상한. 가득 차면 호출한 쓰레드가 기다린다.
+    private int queueCapacity = 1000;
+
+    // 종료 시 실행 중인 그룹을 기다리는 최대 시간. 넘으면 커밋 쓰레드를 인터럽트하고 대기 중인 요청을 실패시킨다.
+    private Duration shutdownTimeout = Duration.ofSeconds(10);
+}
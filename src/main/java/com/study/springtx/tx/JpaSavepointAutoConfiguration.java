@@ -0,0 +1,53 @@
+package com.study.springtx.tx;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.JpaProperties;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.context.annotation.Bean;
+import org.springframework.orm.jpa.JpaVendorAdapter;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionManager;
+import org.springframework.util.StringUtils;
+
+/**
+ * JPA 에서 PROPAGATION_NESTED(JDBC savepoint)를 사용할 수 있도록 스프링 부트 기본 JPA 빈을 교체
+ * - 스프링 부트 기본 설정(JpaBaseConfiguration)과 같고, JpaDialect 와 트랜잭션 매니저 클래스만 다르다.
+ * - 직접 트랜잭션 매니저를 등록한 경우(테스트 설정 등)에는 그 빈을 사용하도록 자동 구성으로 등록한다.
+ */
+@AutoConfiguration(before = HibernateJpaAutoConfiguration.class)
+public class JpaSavepointAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public JpaVendorAdapter jpaVendorAdapter(JpaProperties properties) {
+        SavepointHibernateJpaDialect jpaDialect = new SavepointHibernateJpaDialect();
+        HibernateJpaVendorAdapter adapter = new HibernateJpaVendorAdapter() {
+            @Override
+            public SavepointHibernateJpaDialect getJpaDialect() {
+                return jpaDialect;
+            }
+        };
+        adapter.setShowSql(properties.isShowSql());
+        if (properties.getDatabase() != null) {
+            adapter.setDatabase(properties.getDatabase());
+        }
+        if (StringUtils.hasText(properties.getDatabasePlatform())) {
+            adapter.setDatabasePlatform(properties.getDatabasePlatform());
+        }
+        adapter.setGenerateDdl(properties.isGenerateDdl());
+        return adapter;
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(TransactionManager.class)
+    public PlatformTransactionManager transactionManager(
+            ObjectProvider<TransactionManagerCustomizers> transactionManagerCustomizers) {
+        SavepointJpaTransactionManager transactionManager = new SavepointJpaTransactionManager();
+        transactionManagerCustomizers.ifAvailable(customizers -> customizers.customize(transactionManager));
+        return transactionManager;
+    }
+}
@@ -0,0 +1,186 @@
+package com.study.springtx.tx;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.UnexpectedRollbackException;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 트랜잭션 메서드/전파 옵션별 시간을 측정하는 트랜잭션 매니저
+ * - springtx.tx.begin    : 트랜잭션 시작 시간 (커넥션 획득 포함)
+ * - springtx.tx.body     : 시작 이후 커밋/롤백 호출까지, 트랜잭션 안에서 보낸 시간
+ * - springtx.tx.commit   : 커밋 시간 (outcome=committed, rolled_back, unexpected_rollback, error)
+ * - springtx.tx.rollback : 롤백 시간
+ * - springtx.tx.unexpected.rollback : 내부 트랜잭션의 rollback-only 표시 때문에 커밋이 UnexpectedRollbackException 으로 끝난 수
+ * 모든 Timer 는 히스토그램으로 공개한다. (/actuator/prometheus)
+ * - meter 는 메서드/전파 옵션별로 한 번만 만들어 두고 재사용한다.
+ * - 커밋/롤백하지 않고 버려진 TransactionStatus 의 측정값은 weak 참조라서 GC 와 함께 사라진다.
+ */
+public class MeteredTransactionManager extends DelegatingTransactionManager {
+
+    private static final List<String> UNKNOWN_KEY = List.of("none", "UNKNOWN");
+
+    private final ObjectProvider<MeterRegistry> meterRegistryProvider;
+    private final Cache<TransactionStatus, Sample> samples = Caffeine.newBuilder().weakKeys().build();
+    private final Map<List<String>, Meters> meters = new ConcurrentHashMap<>();
+    private volatile MeterRegistry meterRegistry;
+
+    public MeteredTransactionManager(PlatformTransactionManager delegate, ObjectProvider<MeterRegistry> meterRegistryProvider) {
+        super(delegate);
+        this.meterRegistryProvider = meterRegistryProvider;
+    }
+
+    @Override
+    public TransactionStatus getTransaction(TransactionDefinition definition) throws TransactionException {
+        Meters meters = meters(List.of(Propagations.methodName(definition), Propagations.name(definition)));
+        long start = System.nanoTime();
+        TransactionStatus status;
+        try {
+            status = super.getTransaction(definition);
+        } catch (RuntimeException | Error e) {
+            record(meters, start, System.nanoTime(), "springtx.tx.begin", "new", "false", "outcome", "error");
+            throw e;
+        }
+        long bodyStart = System.nanoTime();
+        record(meters, start, bodyStart, "springtx.tx.begin",
+                "new", String.valueOf(status.isNewTransaction()), "outcome", "success");
+        if (meters != null) {
+            samples.put(status, new Sample(meters, bodyStart));
+        }
+        return status;
+    }
+
+    @Override
+    public void commit(TransactionStatus status) throws TransactionException {
+        Sample sample = samples.asMap().remove(status);
+        Meters meters = sample == null ? meters(UNKNOWN_KEY) : sample.meters;
+        long start = System.nanoTime();
+        recordBody(sample, start);
+
+        String outcome = status.isRollbackOnly() ? "rolled_back" : "committed";
+        try {
+            super.commit(status);
+        } catch (UnexpectedRollbackException e) {
+            outcome = "unexpected_rollback";
+            if (meters != null) {
+                meters.unexpectedRollback().increment();
+            }
+            throw e;
+        } catch (RuntimeException | Error e) {
+            outcome = "error";
+            throw e;
+        } finally {
+            record(meters, start, System.nanoTime(), "springtx.tx.commit", "outcome", outcome);
+        }
+    }
+
+    @Override
+    public void rollback(TransactionStatus status) throws TransactionException {
+        Sample sample = samples.asMap().remove(status);
+        Meters meters = sample == null ? meters(UNKNOWN_KEY) : sample.meters;
+        long start = System.nanoTime();
+        recordBody(sample, start);
+
+        String outcome = "rolled_back";
+        try {
+            super.rollback(status);
+        } catch (RuntimeException | Error e) {
+            outcome = "error";
+            throw e;
+        } finally {
+            record(meters, start, System.nanoTime(), "springtx.tx.rollback", "outcome", outcome);
+        }
+    }
+
+    private void recordBody(Sample sample, long end) {
+        if (sample != null) {
+            record(sample.meters, sample.bodyStart, end, "springtx.tx.body");
+        }
+    }
+
+    private static void record(Meters meters, long start, long end, String name, String... tags) {
+        if (meters != null) {
+            meters.timer(name, tags).record(end - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // MeterRegistry 가 아직 없으면 null (측정하지 않음)
+    private Meters meters(List<String> methodAndPropagation) {
+        MeterRegistry registry = registry();
+        if (registry == null) {
+            return null;
+        }
+        return meters.computeIfAbsent(methodAndPropagation, key -> new Meters(registry,
+                Tags.of("method", key.get(0), "propagation", key.get(1))));
+    }
+
+    private MeterRegistry registry() {
+        MeterRegistry registry = meterRegistry;
+        if (registry == null) {
+            registry = meterRegistryProvider.getIfAvailable();
+            meterRegistry = registry;
+        }
+        return registry;
+    }
+
+    /**
+     * 메서드/전파 옵션 하나의 meter
+     * - Timer 는 이름과 추가 태그(new, outcome)별로 처음 기록할 때 등록한다.
+     */
+    private static class Meters {
+        private final MeterRegistry registry;
+        private final Tags tags;
+        private final Map<List<String>, Timer> timers = new ConcurrentHashMap<>();
+        private volatile Counter unexpectedRollback;
+
+        Meters(MeterRegistry registry, Tags tags) {
+            this.registry = registry;
+            this.tags = tags;
+        }
+
+        Timer timer(String name, String... extraTags) {
+            String[] key = Arrays.copyOf(extraTags, extraTags.length + 1);
+            key[extraTags.length] = name;
+            return timers.computeIfAbsent(Arrays.asList(key), k -> Timer.builder(name)
+                    .tags(tags.and(extraTags))
+                    .publishPercentileHistogram()
+                    .register(registry));
+        }
+
+        Counter unexpectedRollback() {
+            Counter counter = unexpectedRollback;
+            if (counter == null) {
+                counter = Counter.builder("springtx.tx.unexpected.rollback")
+                        .description("inner rollback-only marks surfaced at commit")
+                        .tags(tags)
+                        .register(registry);
+                unexpectedRollback = counter;
+            }
+            return counter;
+        }
+    }
+
+    private static class Sample {
+        private final Meters meters;
+        private final long bodyStart;
+
+        Sample(Meters meters, long bodyStart) {
+            this.meters = meters;
+            this.bodyStart = bodyStart;
+        }
+    }
+}
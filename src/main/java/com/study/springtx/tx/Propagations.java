@@ -0,0 +1,37 @@
+package com.study.springtx.tx;
+
+import org.springframework.transaction.TransactionDefinition;
+
+abstract class Propagations {
+
+    private Propagations() {
+    }
+
+    static String name(TransactionDefinition definition) {
+        if (definition == null) {
+            return "REQUIRED";
+        }
+        switch (definition.getPropagationBehavior()) {
+            case TransactionDefinition.PROPAGATION_REQUIRED:
+                return "REQUIRED";
+            case TransactionDefinition.PROPAGATION_SUPPORTS:
+                return "SUPPORTS";
+            case TransactionDefinition.PROPAGATION_MANDATORY:
+                return "MANDATORY";
+            case TransactionDefinition.PROPAGATION_REQUIRES_NEW:
+                return "REQUIRES_NEW";
+            case TransactionDefinition.PROPAGATION_NOT_SUPPORTED:
+                return "NOT_SUPPORTED";
+            case TransactionDefinition.PROPAGATION_NEVER:
+                return "NEVER";
+            case TransactionDefinition.PROPAGATION_NESTED:
+                return "NESTED";
+            default:
+                return "UNKNOWN";
+        }
+    }
+
+    static String methodName(TransactionDefinition definition) {
+        return definition == null || definition.getName() == null ? "none" : definition.getName();
+    }
+}
@@ -0,0 +1,98 @@
+package com.study.springtx.tx;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 낙관적 락 충돌, 데드락(락 획득 실패) 시 트랜잭션 전체를 다시 실행한다.
+ * - 재시도 사이에는 지수적으로 늘어나는 상한 안에서 무작위(jitter)로 기다린다.
+ * - 이미 진행 중인 트랜잭션에 참여하는 경우에는 재시도하지 않는다.
+ *   (외부 트랜잭션은 이미 rollback-only 로 표시되었고, 같은 영속성 컨텍스트에서 다시 실행해도 의미가 없다)
+ * - 재시도 수는 springtx.tx.retry (outcome=retried, exhausted) 메트릭으로 확인한다.
+ */
+@Slf4j
+@Component
+public class RetryingTransactionExecutor {
+
+    private final PlatformTransactionManager txManager;
+    private final TxRetryProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    public RetryingTransactionExecutor(PlatformTransactionManager txManager, TxRetryProperties properties,
+                                       MeterRegistry meterRegistry) {
+        this.txManager = txManager;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public <T> T execute(TransactionCallback<T> action) {
+        return execute(new DefaultTransactionDefinition(), action);
+    }
+
+    public <T> T execute(TransactionDefinition definition, TransactionCallback<T> action) {
+        TransactionTemplate txTemplate = new TransactionTemplate(txManager, definition);
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && definition.getPropagationBehavior() != TransactionDefinition.PROPAGATION_REQUIRES_NEW) {
+            return txTemplate.execute(action);
+        }
+
+        int attempt = 1;
+        while (true) {
+            try {
+                return txTemplate.execute(action);
+            } catch (RuntimeException e) {
+                if (!isRetryable(e)) {
+                    throw e;
+                }
+                if (attempt >= properties.getMaxAttempts()) {
+                    count(e, "exhausted");
+                    throw e;
+                }
+                count(e, "retried");
+                log.info("트랜잭션 재시도 attempt={}, exception={}", attempt, e.getClass().getSimpleName());
+                backoff(attempt);
+                attempt++;
+            }
+        }
+    }
+
+    private boolean isRetryable(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof OptimisticLockingFailureException
+                    || cause instanceof PessimisticLockingFailureException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void backoff(int attempt) {
+        double ceiling = properties.getInitialBackoff().toMillis() * Math.pow(properties.getMultiplier(), attempt - 1);
+        long maxMillis = (long) Math.min(ceiling, properties.getMaxBackoff().toMillis());
+        if (maxMillis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(maxMillis + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("재시도 대기 중 인터럽트", e);
+        }
+    }
+
+    private void count(RuntimeException e, String outcome) {
+        meterRegistry.counter("springtx.tx.retry",
+                "exception", e.getClass().getSimpleName(), "outcome", outcome).increment();
+    }
+}
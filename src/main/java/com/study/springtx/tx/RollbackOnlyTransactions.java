@@ -0,0 +1,49 @@
+package com.study.springtx.tx;
+
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.support.ResourceHolderSupport;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityTransaction;
+
+/**
+ * 현재 쓰레드의 물리 트랜잭션이 이미 rollback-only 로 표시되었는지 확인
+ * - 참여한 트랜잭션(REQUIRED)이 실패하면 물리 트랜잭션 전체가 rollback-only 가 되고, 커밋 시점에 UnexpectedRollbackException 이 난다.
+ *   그 전에 확인해서 남은 작업(쿼리, 외부 호출)을 건너뛸 수 있다.
+ * - 바인딩된 리소스(ConnectionHolder, EntityManagerHolder)의 상태만 보므로 DB 왕복이 없다.
+ * - NESTED 안에서 실패한 경우는 savepoint 만 rollback-only 이므로 false 다. (SavepointJpaTransactionManager)
+ */
+public abstract class RollbackOnlyTransactions {
+
+    private RollbackOnlyTransactions() {
+    }
+
+    public static boolean isRollbackOnly() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return false;
+        }
+        for (Object resource : TransactionSynchronizationManager.getResourceMap().values()) {
+            if (resource instanceof ResourceHolderSupport && ((ResourceHolderSupport) resource).isRollbackOnly()) {
+                return true;
+            }
+            // JpaTransactionManager 는 EntityManagerHolder 가 아니라 EntityTransaction 에 표시한다.
+            if (resource instanceof EntityManagerHolder) {
+                EntityTransaction tx = ((EntityManagerHolder) resource).getEntityManager().getTransaction();
+                if (tx.isActive() && tx.getRollbackOnly()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * rollback-only 면 TransactionRollbackOnlyException
+     */
+    public static void failIfRollbackOnly() {
+        if (isRollbackOnly()) {
+            throw new TransactionRollbackOnlyException(
+                    "트랜잭션이 이미 rollback-only 로 표시되어 커밋할 수 없습니다. 남은 데이터 접근을 중단합니다.");
+        }
+    }
+}
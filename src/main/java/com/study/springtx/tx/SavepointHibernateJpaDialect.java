@@ -0,0 +1,217 @@
+package com.study.springtx.tx;
+
+import org.hibernate.LockOptions;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.EntityKey;
+import org.hibernate.engine.spi.PersistenceContext;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.Status;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.transaction.SavepointManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.TransactionSystemException;
+import org.springframework.transaction.UnexpectedRollbackException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceException;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JDBC savepoint 를 지원하는 HibernateJpaDialect
+ * - 스프링 기본 HibernateJpaDialect 는 savepoint 를 지원하지 않아서 JPA 에서 PROPAGATION_NESTED 를 사용할 수 없다.
+ * - savepoint 생성: 영속성 컨텍스트를 flush 한 후 JDBC savepoint 를 만들고, 그 시점의 관리 엔티티 상태를 기록한다.
+ * - savepoint 롤백: DB 를 savepoint 로 되돌리고 영속성 컨텍스트도 맞춘다.
+ *   (아직 flush 하지 않은 작업은 버리고, savepoint 이후 영속화된 엔티티는 detach, 이후 변경된 엔티티는 DB 에서 다시 읽는다)
+ *   savepoint 이전부터 관리하던 엔티티를 savepoint 이후 삭제(remove)했으면 flush 여부와 관계없이 같은 인스턴스를 다시 관리한다.
+ *   savepoint 이후 등록된 TransactionSynchronization 도 제거해서 롤백된 작업의 afterCommit 이 실행되지 않게 한다.
+ * - savepoint 안에서 참여(REQUIRED)한 트랜잭션이 실패하면 전체가 아닌 savepoint 만 rollback-only 로 표시한다.
+ *   (SavepointJpaTransactionManager 참고)
+ */
+public class SavepointHibernateJpaDialect extends HibernateJpaDialect {
+
+    // 쓰레드에서 진행 중인 물리 트랜잭션 (REQUIRES_NEW 로 중첩되면 안쪽이 맨 앞)
+    private static final ThreadLocal<Deque<SavepointTransactionData>> CURRENT = ThreadLocal.withInitial(ArrayDeque::new);
+
+    /**
+     * 현재 물리 트랜잭션에 savepoint 가 있으면 가장 안쪽 savepoint 를 rollback-only 로 표시
+     * @return 표시했으면 true, savepoint 가 없으면 false (트랜잭션 전체를 rollback-only 로 표시해야 함)
+     */
+    static boolean markInnermostSavepointRollbackOnly() {
+        SavepointTransactionData current = CURRENT.get().peek();
+        return current != null && current.markInnermostSavepointRollbackOnly();
+    }
+
+    @Override
+    public Object beginTransaction(EntityManager entityManager, TransactionDefinition definition)
+            throws PersistenceException, SQLException, TransactionException {
+        Object transactionData = super.beginTransaction(entityManager, definition);
+        SavepointTransactionData savepointData =
+                new SavepointTransactionData(transactionData, entityManager.unwrap(SessionImplementor.class));
+        Deque<SavepointTransactionData> current = CURRENT.get();
+        current.removeIf(data -> !data.session.isOpen()); // 시작 도중 실패해서 정리되지 않은 트랜잭션
+        current.push(savepointData);
+        return savepointData;
+    }
+
+    @Override
+    public void cleanupTransaction(Object transactionData) {
+        if (transactionData instanceof SavepointTransactionData) {
+            Deque<SavepointTransactionData> current = CURRENT.get();
+            current.remove(transactionData);
+            if (current.isEmpty()) {
+                CURRENT.remove();
+            }
+            transactionData = ((SavepointTransactionData) transactionData).delegate;
+        }
+        super.cleanupTransaction(transactionData);
+    }
+
+    private static class SavepointTransactionData implements SavepointManager {
+
+        private final Object delegate;
+        private final SessionImplementor session;
+        private final Deque<EntitySavepoint> savepoints = new ArrayDeque<>();
+
+        SavepointTransactionData(Object delegate, SessionImplementor session) {
+            this.delegate = delegate;
+            this.session = session;
+        }
+
+        boolean markInnermostSavepointRollbackOnly() {
+            EntitySavepoint innermost = savepoints.peek();
+            if (innermost == null) {
+                return false;
+            }
+            innermost.rollbackOnly = true;
+            return true;
+        }
+
+        @Override
+        public Object createSavepoint() throws TransactionException {
+            session.flush();
+            Savepoint savepoint = session.doReturningWork(connection -> connection.setSavepoint());
+
+            PersistenceContext persistenceContext = session.getPersistenceContextInternal();
+            Map.Entry<Object, EntityEntry>[] entries = persistenceContext.reentrantSafeEntityEntries();
+            Map<EntityKey, Object[]> loadedStates = new HashMap<>(entries.length * 2);
+            Map<EntityKey, Object> entities = new HashMap<>(entries.length * 2);
+            for (Map.Entry<Object, EntityEntry> entry : entries) {
+                loadedStates.put(entry.getValue().getEntityKey(), entry.getValue().getLoadedState());
+                entities.put(entry.getValue().getEntityKey(), entry.getKey());
+            }
+
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.isSynchronizationActive()
+                    ? TransactionSynchronizationManager.getSynchronizations()
+                    : Collections.emptyList();
+
+            EntitySavepoint entitySavepoint = new EntitySavepoint(savepoint, loadedStates, entities, synchronizations);
+            savepoints.push(entitySavepoint);
+            return entitySavepoint;
+        }
+
+        @Override
+        public void rollbackToSavepoint(Object savepoint) throws TransactionException {
+            EntitySavepoint entitySavepoint = (EntitySavepoint) savepoint;
+            session.getJdbcCoordinator().abortBatch();
+            session.getActionQueue().clear();
+            session.doWork(connection -> connection.rollback(entitySavepoint.savepoint));
+            restorePersistenceContext(entitySavepoint);
+            restoreSynchronizations(entitySavepoint);
+            entitySavepoint.rollbackOnly = false;
+        }
+
+        @Override
+        public void releaseSavepoint(Object savepoint) throws TransactionException {
+            EntitySavepoint entitySavepoint = (EntitySavepoint) savepoint;
+            if (entitySavepoint.rollbackOnly) {
+                // savepoint 안에서 참여한 트랜잭션이 실패했는데 예외를 잡고 정상 종료한 경우
+                rollbackToSavepoint(entitySavepoint);
+                release(entitySavepoint);
+                throw new UnexpectedRollbackException(
+                        "Transaction rolled back to savepoint because it has been marked as rollback-only");
+            }
+            release(entitySavepoint);
+        }
+
+        private void release(EntitySavepoint entitySavepoint) {
+            savepoints.remove(entitySavepoint);
+            try {
+                session.doWork(connection -> connection.releaseSavepoint(entitySavepoint.savepoint));
+            } catch (PersistenceException e) {
+                throw new TransactionSystemException("Could not explicitly release JDBC savepoint", e);
+            }
+        }
+
+        private void restorePersistenceContext(EntitySavepoint entitySavepoint) {
+            PersistenceContext persistenceContext = session.getPersistenceContextInternal();
+            for (Map.Entry<Object, EntityEntry> entry : persistenceContext.reentrantSafeEntityEntries()) {
+                Object entity = entry.getKey();
+                EntityEntry entityEntry = entry.getValue();
+                if (!entitySavepoint.loadedStates.containsKey(entityEntry.getEntityKey())
+                        || entityEntry.getStatus() == Status.DELETED) {
+                    // savepoint 이후 영속화된 엔티티, 또는 삭제 요청된 엔티티 (이전부터 있던 엔티티는 아래에서 다시 관리)
+                    session.evict(entity);
+                } else if (isChangedSince(entitySavepoint, entity, entityEntry)) {
+                    session.refresh(entity);
+                }
+            }
+
+            // savepoint 이후 삭제되어 영속성 컨텍스트에서 빠진 엔티티: DB 롤백으로 행이 되살아났으므로 같은 인스턴스로 다시 읽는다.
+            for (Map.Entry<EntityKey, Object> entry : entitySavepoint.entities.entrySet()) {
+                if (persistenceContext.getEntity(entry.getKey()) == null) {
+                    session.buildLockRequest(LockOptions.NONE).lock(entry.getValue());
+                    session.refresh(entry.getValue());
+                }
+            }
+        }
+
+        private boolean isChangedSince(EntitySavepoint entitySavepoint, Object entity, EntityEntry entityEntry) {
+            Object[] loadedState = entityEntry.getLoadedState();
+            if (loadedState == null) {
+                return false; // 읽기 전용 엔티티
+            }
+            if (loadedState != entitySavepoint.loadedStates.get(entityEntry.getEntityKey())) {
+                return true; // savepoint 이후 flush 됨
+            }
+            EntityPersister persister = entityEntry.getPersister();
+            return persister.findDirty(persister.getPropertyValues(entity), loadedState, entity, session) != null;
+        }
+
+        private void restoreSynchronizations(EntitySavepoint entitySavepoint) {
+            if (!TransactionSynchronizationManager.isSynchronizationActive()
+                    || TransactionSynchronizationManager.getSynchronizations().size() == entitySavepoint.synchronizations.size()) {
+                return;
+            }
+            TransactionSynchronizationManager.clearSynchronization();
+            TransactionSynchronizationManager.initSynchronization();
+            entitySavepoint.synchronizations.forEach(TransactionSynchronizationManager::registerSynchronization);
+        }
+    }
+
+    private static class EntitySavepoint {
+        private final Savepoint savepoint;
+        private final Map<EntityKey, Object[]> loadedStates;
+        private final Map<EntityKey, Object> entities;
+        private final List<TransactionSynchronization> synchronizations;
+        private boolean rollbackOnly;
+
+        EntitySavepoint(Savepoint savepoint, Map<EntityKey, Object[]> loadedStates, Map<EntityKey, Object> entities,
+                        List<TransactionSynchronization> synchronizations) {
+            this.savepoint = savepoint;
+            this.loadedStates = loadedStates;
+            this.entities = entities;
+            this.synchronizations = synchronizations;
+        }
+    }
+}
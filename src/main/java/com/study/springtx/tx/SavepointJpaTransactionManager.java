@@ -0,0 +1,26 @@
+package com.study.springtx.tx;
+
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+/**
+ * PROPAGATION_NESTED(savepoint) 안에서 참여한 트랜잭션이 실패하면 savepoint 만 rollback-only 로 표시
+ * - 기본 JpaTransactionManager 는 물리 트랜잭션 전체를 rollback-only 로 표시해서,
+ *   NESTED 에서 savepoint 로 롤백해도 바깥 트랜잭션 커밋이 UnexpectedRollbackException 으로 실패한다.
+ * - DataSourceTransactionManager 가 savepoint 롤백 시 rollback-only 를 해제하는 것과 같은 동작
+ * - savepoint 가 없으면 기존과 같이 트랜잭션 전체를 rollback-only 로 표시한다.
+ * - SavepointHibernateJpaDialect 와 함께 사용한다.
+ */
+public class SavepointJpaTransactionManager extends JpaTransactionManager {
+
+    @Override
+    protected void doSetRollbackOnly(DefaultTransactionStatus status) {
+        if (SavepointHibernateJpaDialect.markInnermostSavepointRollbackOnly()) {
+            if (status.isDebug()) {
+                logger.debug("Participating transaction failed - marking innermost savepoint as rollback-only");
+            }
+            return;
+        }
+        super.doSetRollbackOnly(status);
+    }
+}
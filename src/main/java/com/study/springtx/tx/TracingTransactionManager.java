@@ -0,0 +1,137 @@
+package com.study.springtx.tx;
+
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.UnexpectedRollbackException;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 물리 트랜잭션 단위의 추적 정보를 MDC 에 넣는 트랜잭션 매니저
+ * - txId: 물리 트랜잭션 ID, txParentId: REQUIRES_NEW 로 중단된 바깥 트랜잭션 ID
+ * - txDepth: 쓰레드에서 중첩된 물리 트랜잭션 수 (1 부터), txPropagation: 시작한 전파 옵션
+ * - txOutcome: 종료 로그에만 (committed, rolled_back)
+ * - 참여(REQUIRED 등)하는 트랜잭션은 바깥 트랜잭션의 정보를 그대로 사용한다.
+ * - 내부 트랜잭션이 끝나면 바깥 트랜잭션의 정보로 되돌린다.
+ */
+@Slf4j
+public class TracingTransactionManager extends DelegatingTransactionManager {
+
+    public static final String MDC_TX_ID = "txId";
+    public static final String MDC_TX_PARENT_ID = "txParentId";
+    public static final String MDC_TX_DEPTH = "txDepth";
+    public static final String MDC_TX_PROPAGATION = "txPropagation";
+    public static final String MDC_TX_OUTCOME = "txOutcome";
+
+    private static final AtomicLong ID = new AtomicLong();
+    private static final ThreadLocal<Deque<Trace>> TRACES = ThreadLocal.withInitial(ArrayDeque::new);
+
+    public TracingTransactionManager(PlatformTransactionManager delegate) {
+        super(delegate);
+    }
+
+    @Override
+    public TransactionStatus getTransaction(TransactionDefinition definition) throws TransactionException {
+        TransactionStatus status = super.getTransaction(definition);
+        if (status.isNewTransaction()) {
+            Deque<Trace> traces = TRACES.get();
+            Trace parent = traces.peek();
+            Trace trace = new Trace(status, Long.toHexString(ID.incrementAndGet()), parent == null ? null : parent.txId,
+                    traces.size() + 1, Propagations.name(definition));
+            traces.push(trace);
+            trace.apply();
+        }
+        return status;
+    }
+
+    @Override
+    public void commit(TransactionStatus status) throws TransactionException {
+        Trace trace = current(status);
+        String outcome = status.isRollbackOnly() ? "rolled_back" : "committed";
+        try {
+            super.commit(status);
+        } catch (UnexpectedRollbackException e) {
+            outcome = "rolled_back";
+            throw e;
+        } catch (RuntimeException | Error e) {
+            outcome = "error";
+            throw e;
+        } finally {
+            end(trace, outcome);
+        }
+    }
+
+    @Override
+    public void rollback(TransactionStatus status) throws TransactionException {
+        Trace trace = current(status);
+        String outcome = "rolled_back";
+        try {
+            super.rollback(status);
+        } catch (RuntimeException | Error e) {
+            outcome = "error";
+            throw e;
+        } finally {
+            end(trace, outcome);
+        }
+    }
+
+    private Trace current(TransactionStatus status) {
+        Trace trace = TRACES.get().peek();
+        return trace != null && trace.status == status ? trace : null;
+    }
+
+    private void end(Trace trace, String outcome) {
+        if (trace == null) {
+            return;
+        }
+        MDC.put(MDC_TX_OUTCOME, outcome);
+        log.debug("transaction end");
+        MDC.remove(MDC_TX_OUTCOME);
+
+        Deque<Trace> traces = TRACES.get();
+        traces.pop();
+        Trace parent = traces.peek();
+        if (parent != null) {
+            parent.apply();
+        } else {
+            TRACES.remove();
+            MDC.remove(MDC_TX_ID);
+            MDC.remove(MDC_TX_PARENT_ID);
+            MDC.remove(MDC_TX_DEPTH);
+            MDC.remove(MDC_TX_PROPAGATION);
+        }
+    }
+
+    private static class Trace {
+        private final TransactionStatus status;
+        private final String txId;
+        private final String parentTxId;
+        private final String depth;
+        private final String propagation;
+
+        Trace(TransactionStatus status, String txId, String parentTxId, int depth, String propagation) {
+            this.status = status;
+            this.txId = txId;
+            this.parentTxId = parentTxId;
+            this.depth = String.valueOf(depth);
+            this.propagation = propagation;
+        }
+
+        void apply() {
+            MDC.put(MDC_TX_ID, txId);
+            if (parentTxId == null) {
+                MDC.remove(MDC_TX_PARENT_ID);
+            } else {
+                MDC.put(MDC_TX_PARENT_ID, parentTxId);
+            }
+            MDC.put(MDC_TX_DEPTH, depth);
+            MDC.put(MDC_TX_PROPAGATION, propagation);
+        }
+    }
+}
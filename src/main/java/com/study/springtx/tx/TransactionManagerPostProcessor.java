@@ -0,0 +1,38 @@
+package com.study.springtx.tx;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * 등록된 트랜잭션 매니저를 설정에 따라 데코레이터로 감싼다.
+ */
+public class TransactionManagerPostProcessor implements BeanPostProcessor {
+
+    private final TxProperties properties;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public TransactionManagerPostProcessor(TxProperties properties, ObjectProvider<MeterRegistry> meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof PlatformTransactionManager) || bean instanceof DelegatingTransactionManager) {
+            return bean;
+        }
+        PlatformTransactionManager txManager = (PlatformTransactionManager) bean;
+        if (properties.getDeadline().isEnabled()) {
+            txManager = new DeadlineTransactionManager(txManager);
+        }
+        if (properties.getTracing().isEnabled()) {
+            txManager = new TracingTransactionManager(txManager);
+        }
+        if (properties.getMetrics().isEnabled()) {
+            txManager = new MeteredTransactionManager(txManager, meterRegistry);
+        }
+        return txManager;
+    }
+}
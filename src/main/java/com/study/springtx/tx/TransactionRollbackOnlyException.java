@@ -0,0 +1,14 @@
+package com.study.springtx.tx;
+
+import org.springframework.transaction.UnexpectedRollbackException;
+
+/**
+ * rollback-only 로 표시된 트랜잭션에서 데이터 접근을 시도함
+ * - 커밋 시점의 UnexpectedRollbackException 을 미리 알리는 것이므로 같은 계층으로 둔다.
+ */
+public class TransactionRollbackOnlyException extends UnexpectedRollbackException {
+
+    public TransactionRollbackOnlyException(String message) {
+        super(message);
+    }
+}
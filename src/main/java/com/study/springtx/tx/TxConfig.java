@@ -0,0 +1,21 @@
+package com.study.springtx.tx;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+@Configuration
+public class TxConfig {
+
+    @Bean
+    public static TransactionManagerPostProcessor transactionManagerPostProcessor(
+            Environment environment, ObjectProvider<MeterRegistry> meterRegistry) {
+        TxProperties properties = Binder.get(environment)
+                .bind(TxProperties.PREFIX, TxProperties.class)
+                .orElseGet(TxProperties::new);
+        return new TransactionManagerPostProcessor(properties, meterRegistry);
+    }
+}
@@ -0,0 +1,42 @@
+package com.study.springtx.tx;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * 트랜잭션 매니저 데코레이터 설정 (springtx.tx.*)
+ * - BeanPostProcessor 에서 사용하므로 @ConfigurationProperties 빈이 아니라 Binder 로 직접 바인딩한다.
+ */
+@Getter
+@Setter
+public class TxProperties {
+
+    public static final String PREFIX = "springtx.tx";
+
+    private final Metrics metrics = new Metrics();
+
+    private final Tracing tracing = new Tracing();
+
+    private final DeadlineSettings deadline = new DeadlineSettings();
+
+    @Getter
+    @Setter
+    public static class Metrics {
+        // 트랜잭션 메서드/전파 옵션별 시간 측정
+        private boolean enabled = true;
+    }
+
+    @Getter
+    @Setter
+    public static class Tracing {
+        // 물리 트랜잭션 ID, 깊이, 전파 옵션을 MDC 에 기록
+        private boolean enabled = true;
+    }
+
+    @Getter
+    @Setter
+    public static class DeadlineSettings {
+        // 요청의 남은 시간 예산(Deadline)을 트랜잭션 timeout 으로 사용
+        private boolean enabled = true;
+    }
+}
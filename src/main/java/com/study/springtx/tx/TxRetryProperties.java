@@ -0,0 +1,23 @@
+package com.study.springtx.tx;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties("springtx.tx.retry")
+public class TxRetryProperties {
+
+    // 첫 시도를 포함한 최대 시도 횟수
+    private int maxAttempts = 3;
+
+    // 첫 재시도 전 대기 시간의 상한. 재시도마다 multiplier 배씩 늘어난다.
+    private Duration initialBackoff = Duration.ofMillis(20);
+
+    private Duration maxBackoff = Duration.ofMillis(500);
+
+    private double multiplier = 2.0;
+}
@@ -0,0 +1,104 @@
+package com.study.springtx.tx;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.MDC;
+import org.slf4j.Marker;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 카테고리(logger 이름 prefix)별 로그 샘플링 (logback-spring.xml)
+ * - 카테고리마다 sampleRate 를 따로 정한다. 여러 prefix 에 맞으면 가장 긴 prefix 의 카테고리를 사용한다.
+ * - maxLevel 이하 로그만 sampleRate 비율로 남긴다. (WARN 이상은 항상 남김)
+ * - 트랜잭션 안에서는 txId 로 결정해서 한 트랜잭션의 로그는 모두 남거나 모두 버린다.
+ *   카테고리의 비율이 달라도 같은 txId 를 쓰므로, 비율이 낮은 카테고리에 남은 트랜잭션은 비율이 높은 카테고리에도 남는다.
+ * - 메시지를 만들기 전(TurboFilter)에 거르므로 버리는 로그는 포맷 비용이 없다.
+ *
+ * <pre>
+ * &lt;turboFilter class="com.study.springtx.tx.TxSamplingTurboFilter"&gt;
+ *     &lt;category&gt;&lt;prefix&gt;org.hibernate.SQL&lt;/prefix&gt;&lt;sampleRate&gt;0.1&lt;/sampleRate&gt;&lt;/category&gt;
+ * &lt;/turboFilter&gt;
+ * </pre>
+ */
+public class TxSamplingTurboFilter extends TurboFilter {
+
+    private static final int SCALE = 10_000;
+
+    private final List<Category> categories = new ArrayList<>();
+    private Level maxLevel = Level.INFO;
+
+    public void addCategory(Category category) {
+        categories.add(category);
+    }
+
+    public void setMaxLevel(String maxLevel) {
+        this.maxLevel = Level.toLevel(maxLevel, Level.INFO);
+    }
+
+    @Override
+    public void start() {
+        categories.sort(Comparator.comparingInt((Category category) -> category.prefix.length()).reversed());
+        super.start();
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (!isStarted() || level == null || level.levelInt > maxLevel.levelInt) {
+            return FilterReply.NEUTRAL;
+        }
+        Category category = categoryOf(logger.getName());
+        if (category == null || category.threshold >= SCALE) {
+            return FilterReply.NEUTRAL;
+        }
+        return bucket() < category.threshold ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    // 긴 prefix 부터 정렬되어 있으므로 처음 맞는 카테고리가 가장 구체적이다.
+    private Category categoryOf(String loggerName) {
+        for (Category category : categories) {
+            if (loggerName.startsWith(category.prefix)) {
+                return category;
+            }
+        }
+        return null;
+    }
+
+    private int bucket() {
+        String txId = MDC.get(TracingTransactionManager.MDC_TX_ID);
+        return txId == null
+                ? ThreadLocalRandom.current().nextInt(SCALE)
+                : (mix(txId.hashCode()) & Integer.MAX_VALUE) % SCALE;
+    }
+
+    // txId 는 순차 증가하는 16진수라 hashCode 가 고르게 퍼지지 않으므로 섞어서 사용 (murmur3 fmix32)
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    /**
+     * 샘플링 카테고리 (&lt;category&gt;)
+     */
+    public static class Category {
+        private String prefix = "";
+        private int threshold = SCALE;
+
+        public void setPrefix(String prefix) {
+            this.prefix = prefix.trim();
+        }
+
+        public void setSampleRate(double sampleRate) {
+            this.threshold = (int) Math.round(Math.max(0, Math.min(1, sampleRate)) * SCALE);
+        }
+    }
+}
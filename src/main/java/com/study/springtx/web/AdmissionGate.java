@@ -0,0 +1,112 @@
+package com.study.springtx.web;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 요청 수락 제어
+ * - 동시에 처리하는 요청 수를 커넥션 풀 크기로 제한한다. 초과한 요청은 커넥션 풀이 아니라 여기서 기다린다.
+ * - 대기열이 가득 찼거나 maxWait 안에 순서가 오지 않으면 바로 거절한다. (부하가 몰려도 대기 시간이 maxWait 를 넘지 않음)
+ * - 반환된 permit 은 먼저 기다리던 요청이 받는다. 새로 들어온 요청이 대기열을 앞지르지 않는다.
+ * - 메트릭: springtx.admission.active, springtx.admission.queue, springtx.admission.wait, springtx.admission.rejected{reason}
+ */
+@Slf4j
+@Component
+public class AdmissionGate {
+
+    private static final int DEFAULT_PERMITS = 10;
+
+    private final AdmissionProperties properties;
+    private final int permits;
+    private final Semaphore semaphore;
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    private final Timer waitTimer;
+    private final Counter queueFullRejections;
+    private final Counter timeoutRejections;
+
+    public AdmissionGate(AdmissionProperties properties, DataSource dataSource, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.permits = properties.getPermits() > 0 ? properties.getPermits() : poolSize(dataSource);
+        this.semaphore = new Semaphore(permits, true);
+
+        Gauge.builder("springtx.admission.active", semaphore, s -> permits - s.availablePermits())
+                .description("처리 중인 요청 수")
+                .register(meterRegistry);
+        Gauge.builder("springtx.admission.queue", waiting, AtomicInteger::get)
+                .description("처리 순서를 기다리는 요청 수")
+                .register(meterRegistry);
+        this.waitTimer = Timer.builder("springtx.admission.wait")
+                .description("처리 순서를 기다린 시간 (수락된 요청)")
+                .register(meterRegistry);
+        this.queueFullRejections = Counter.builder("springtx.admission.rejected")
+                .tag("reason", "queue_full")
+                .register(meterRegistry);
+        this.timeoutRejections = Counter.builder("springtx.admission.rejected")
+                .tag("reason", "timeout")
+                .register(meterRegistry);
+        log.info("admission permits={}, queueCapacity={}, maxWait={}", permits, properties.getQueueCapacity(), properties.getMaxWait());
+    }
+
+    /**
+     * @return 수락되면 true. true 를 받은 호출자는 처리 후 반드시 exit() 를 호출한다.
+     */
+    public boolean tryEnter() throws InterruptedException {
+        // 시간 제한 없는 tryAcquire() 는 공정(fair) 설정을 무시하고 대기 중인 요청을 앞지르므로 0 으로 기다린다.
+        if (semaphore.tryAcquire(0, TimeUnit.NANOSECONDS)) {
+            waitTimer.record(0, TimeUnit.NANOSECONDS);
+            return true;
+        }
+        if (waiting.incrementAndGet() > properties.getQueueCapacity()) {
+            waiting.decrementAndGet();
+            queueFullRejections.increment();
+            return false;
+        }
+
+        long start = System.nanoTime();
+        try {
+            if (semaphore.tryAcquire(properties.getMaxWait().toNanos(), TimeUnit.NANOSECONDS)) {
+                waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                return true;
+            }
+            timeoutRejections.increment();
+            return false;
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+
+    public void exit() {
+        semaphore.release();
+    }
+
+    public int getPermits() {
+        return permits;
+    }
+
+    public int getWaiting() {
+        return waiting.get();
+    }
+
+    private static int poolSize(DataSource dataSource) {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                return dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+            }
+        } catch (SQLException e) {
+            log.warn("커넥션 풀 크기를 확인하지 못했습니다. 기본값 {} 사용", DEFAULT_PERMITS, e);
+        }
+        return DEFAULT_PERMITS;
+    }
+}
@@ -0,0 +1,27 @@
+package com.study.springtx.web;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties("springtx.web.admission")
+public class AdmissionProperties {
+
+    private boolean enabled = true;
+
+    // 동시에 처리할 요청 수. 0 이면 커넥션 풀 크기(maximumPoolSize)
+    private int permits = 0;
+
+    // 처리 순서를 기다릴 수 있는 요청 수. 넘으면 바로 거절
+    private int queueCapacity = 100;
+
+    // 대기 최대 시간. 넘으면 거절
+    private Duration maxWait = Duration.ofSeconds(1);
+
+    // 거절 응답의 Retry-After
+    private Duration retryAfter = Duration.ofSeconds(1);
+}
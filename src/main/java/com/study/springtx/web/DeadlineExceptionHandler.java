@@ -0,0 +1,23 @@
+package com.study.springtx.web;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.TransactionTimedOutException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * 시간 예산(deadline) 초과로 트랜잭션/SQL 을 실행하지 못한 요청은 504 Gateway Timeout
+ */
+@Slf4j
+@RestControllerAdvice
+public class DeadlineExceptionHandler {
+
+    @ExceptionHandler({TransactionTimedOutException.class, QueryTimeoutException.class})
+    public ResponseEntity<Void> deadlineExceeded(RuntimeException e) {
+        log.info("시간 예산 초과: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).build();
+    }
+}
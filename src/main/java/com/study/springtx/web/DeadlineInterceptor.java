@@ -0,0 +1,71 @@
+package com.study.springtx.web;
+
+import com.study.springtx.tx.Deadline;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * 요청 헤더(X-Request-Timeout)의 시간 예산으로 Deadline 범위를 열고 요청이 끝나면 닫는다.
+ * - 헤더가 없으면 defaultTimeout, 헤더 값은 maxTimeout 을 넘을 수 없다.
+ * - 헤더 값을 해석할 수 없으면 컨트롤러를 호출하지 않고 400 Bad Request
+ * - 비동기 처리(StreamingResponseBody 등)로 넘어가면 요청 쓰레드에서 범위를 닫는다. (비동기 작업에는 적용되지 않음)
+ */
+@RequiredArgsConstructor
+public class DeadlineInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String SCOPE = DeadlineInterceptor.class.getName() + ".SCOPE";
+
+    private final DeadlineProperties properties;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        Duration budget;
+        try {
+            budget = budget(request.getHeader(properties.getHeader()));
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), properties.getHeader() + " 헤더 값이 올바르지 않습니다.");
+            return false;
+        }
+        if (budget != null) {
+            request.setAttribute(SCOPE, Deadline.open(budget));
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        close(request);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        close(request);
+    }
+
+    private Duration budget(String header) {
+        if (header == null || header.isBlank()) {
+            return properties.getDefaultTimeout();
+        }
+        Duration requested = DurationStyle.detectAndParse(header.trim(), ChronoUnit.MILLIS);
+        if (requested.isNegative()) {
+            throw new IllegalArgumentException("음수 시간 예산: " + header);
+        }
+        Duration max = properties.getMaxTimeout();
+        return max != null && requested.compareTo(max) > 0 ? max : requested;
+    }
+
+    private void close(HttpServletRequest request) {
+        Object scope = request.getAttribute(SCOPE);
+        if (scope != null) {
+            request.removeAttribute(SCOPE);
+            ((Deadline.Scope) scope).close();
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.study.springtx.web;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties("springtx.web.deadline")
+public class DeadlineProperties {
+
+    private boolean enabled = true;
+
+    // 요청의 시간 예산을 담은 헤더 (예: 1500, 1500ms, 2s. 단위가 없으면 ms)
+    private String header = "X-Request-Timeout";
+
+    // 헤더가 없는 요청의 시간 예산. null 이면 제한 없음
+    private Duration defaultTimeout;
+
+    // 헤더로 요청할 수 있는 최대 시간 예산
+    private Duration maxTimeout = Duration.ofSeconds(30);
+}
@@ -0,0 +1,29 @@
+package com.study.springtx.web;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@RequiredArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+
+    private final AdmissionGate admissionGate;
+    private final AdmissionProperties admissionProperties;
+    private final DeadlineProperties deadlineProperties;
+
+    // DB 를 사용하는 요청 처리 API 에만 적용 (actuator, export 는 제외)
+    // deadline 을 먼저 적용해서 입장 대기 이후의 트랜잭션도 같은 예산을 사용한다.
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        if (deadlineProperties.isEnabled()) {
+            registry.addInterceptor(new DeadlineInterceptor(deadlineProperties))
+                    .addPathPatterns("/orders/**", "/members/**");
+        }
+        if (admissionProperties.isEnabled()) {
+            registry.addInterceptor(new AdmissionInterceptor(admissionGate, admissionProperties))
+                    .addPathPatterns("/orders/**", "/members/**");
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.study.springtx.common;
+
+import com.study.springtx.order.Order;
+import com.study.springtx.order.OrderRepository;
+import com.study.springtx.propagation.MemberService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 트랜잭션당 SQL 문장 수와 DB 왕복 횟수 비교
+ * - 변경 전: 시퀀스 1회 호출로 ID 1개 할당 + INSERT 문장마다 개별 전송
+ * - 변경 후: pooled-lo 로 ID 50개씩 할당 + 같은 테이블 INSERT/UPDATE 는 JDBC 배치로 한 번에 전송
+ */
+@Slf4j
+class InsertRoundTripTest {
+
+    static final int ORDER_COUNT = 100;
+
+    @Nested
+    @SpringBootTest(properties = {
+            "spring.jpa.properties.hibernate.jdbc.batch_size=1",
+            "spring.jpa.properties.springtx.id.allocation_size=1"})
+    @Import(JdbcCounter.class)
+    class Before {
+
+        @Autowired JdbcCounter counter;
+        @Autowired MemberService memberService;
+        @Autowired OrderRepository orderRepository;
+        @Autowired TransactionTemplate txTemplate;
+
+        @Test
+        void joinV1() {
+            counter.reset();
+            memberService.joinV1("roundTrip_before");
+            log.info("[before] joinV1 statements={}, roundTrips={}", counter.statements(), counter.roundTrips());
+
+            // 시퀀스 2회 + INSERT 2회 + 커밋
+            assertThat(counter.roundTrips()).isGreaterThanOrEqualTo(5);
+        }
+
+        @Test
+        void multiOrder() {
+            counter.reset();
+            saveOrders(txTemplate, orderRepository);
+            log.info("[before] {} orders statements={}, roundTrips={}", ORDER_COUNT, counter.statements(), counter.roundTrips());
+
+            // 주문마다 시퀀스 + INSERT
+            assertThat(counter.roundTrips()).isGreaterThanOrEqualTo(2 * ORDER_COUNT);
+        }
+    }
+
+    @Nested
+    @SpringBootTest
+    @Import(JdbcCounter.class)
+    class After {
+
+        @Autowired JdbcCounter counter;
+        @Autowired MemberService memberService;
+        @Autowired OrderRepository orderRepository;
+        @Autowired TransactionTemplate txTemplate;
+
+        @Test
+        void joinV1() {
+            counter.reset();
+            memberService.joinV1("roundTrip_after");
+            log.info("[after] joinV1 statements={}, roundTrips={}", counter.statements(), counter.roundTrips());
+
+            // 시퀀스는 50건에 1회로 줄고, member/log/outbox INSERT 는 테이블별 배치 1회씩
+            assertThat(counter.roundTrips()).isLessThanOrEqualTo(7);
+        }
+
+        @Test
+        void multiOrder() {
+            counter.reset();
+            saveOrders(txTemplate, orderRepository);
+            log.info("[after] {} orders statements={}, roundTrips={}", ORDER_COUNT, counter.statements(), counter.roundTrips());
+
+            // 시퀀스 최대 3회 + INSERT 배치 2회 + 커밋
+            assertThat(counter.statements()).isGreaterThanOrEqualTo(ORDER_COUNT);
+            assertThat(counter.roundTrips()).isLessThanOrEqualTo(10);
+        }
+    }
+
+    static void saveOrders(TransactionTemplate txTemplate, OrderRepository orderRepository) {
+        txTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < ORDER_COUNT; i++) {
+                Order order = new Order();
+                order.setUsername("정상");
+                order.setPayStatus("완료");
+                orderRepository.save(order);
+            }
+        });
+    }
+}
@@ -0,0 +1,152 @@
+package com.study.springtx.common;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.core.PriorityOrdered;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 테스트용 JDBC 호출 카운터
+ * - DataSource 를 감싸서 실행된 SQL 문장 수와 DB 왕복(round trip) 횟수를 센다.
+ * - 배치에 추가된 문장(addBatch)은 문장 수에만, executeBatch 한 번은 왕복 1회로 센다.
+ * - 커넥션 획득 수와 동시에 열려 있던 커넥션의 최대값(peak)도 센다.
+ * - @Import(JdbcCounter.class) 로 테스트 컨텍스트에 등록해서 사용한다.
+ */
+public class JdbcCounter implements BeanPostProcessor, PriorityOrdered {
+
+    private final AtomicLong statements = new AtomicLong();
+    private final AtomicLong roundTrips = new AtomicLong();
+    private final AtomicLong connections = new AtomicLong();
+    private final AtomicInteger openConnections = new AtomicInteger();
+    private final AtomicInteger peakConnections = new AtomicInteger();
+
+    public long statements() {
+        return statements.get();
+    }
+
+    public long roundTrips() {
+        return roundTrips.get();
+    }
+
+    public long connections() {
+        return connections.get();
+    }
+
+    public int openConnections() {
+        return openConnections.get();
+    }
+
+    public int peakConnections() {
+        return peakConnections.get();
+    }
+
+    public void reset() {
+        statements.set(0);
+        roundTrips.set(0);
+        connections.set(0);
+        peakConnections.set(openConnections.get());
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource && !(bean instanceof CountingDataSource)) {
+            return new CountingDataSource((DataSource) bean);
+        }
+        return bean;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    private class CountingDataSource extends DelegatingDataSource {
+
+        CountingDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return countingConnection(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return countingConnection(super.getConnection(username, password));
+        }
+    }
+
+    private Connection countingConnection(Connection target) {
+        connections.incrementAndGet();
+        peakConnections.accumulateAndGet(openConnections.incrementAndGet(), Math::max);
+        AtomicBoolean closed = new AtomicBoolean();
+        return proxy(Connection.class, target, (proxy, method, args) -> {
+            Object result = invoke(target, method, args);
+            switch (method.getName()) {
+                case "close":
+                    if (closed.compareAndSet(false, true)) {
+                        openConnections.decrementAndGet();
+                    }
+                    return result;
+                case "createStatement":
+                case "prepareStatement":
+                case "prepareCall":
+                    return countingStatement(method.getReturnType(), (Statement) result);
+                case "commit":
+                case "rollback":
+                    roundTrips.incrementAndGet();
+                    return result;
+                default:
+                    return result;
+            }
+        });
+    }
+
+    private Object countingStatement(Class<?> type, Statement target) {
+        return proxy(type, target, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "addBatch":
+                    statements.incrementAndGet();
+                    break;
+                case "executeBatch":
+                case "executeLargeBatch":
+                    roundTrips.incrementAndGet();
+                    break;
+                case "execute":
+                case "executeQuery":
+                case "executeUpdate":
+                case "executeLargeUpdate":
+                    statements.incrementAndGet();
+                    roundTrips.incrementAndGet();
+                    break;
+            }
+            return invoke(target, method, args);
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Object target, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(JdbcCounter.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.study.springtx.datasource;
+
+import com.study.springtx.propagation.Log;
+import com.study.springtx.propagation.LogRepository;
+import com.study.springtx.propagation.Member;
+import com.study.springtx.propagation.MemberRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * REQUIRES_NEW 커넥션 풀 교착 상태
+ * - 풀 크기(2)만큼의 쓰레드가 외부 트랜잭션 커넥션을 잡은 채 REQUIRES_NEW 로 커넥션을 하나 더 요청한다.
+ */
+@Slf4j
+class ConnectionStarvationTest {
+
+    static final int POOL_SIZE = 2;
+    static final long CONNECTION_TIMEOUT_MILLIS = 500;
+
+    /**
+     * 기존: 모든 쓰레드가 풀 타임아웃까지 기다린 뒤 실패한다.
+     * (먼저 실패한 쓰레드가 반납한 커넥션을 다른 쓰레드가 타임아웃 직전에 얻을 수도 있다)
+     */
+    @Nested
+    @SpringBootTest(properties = {
+            "spring.datasource.hikari.maximum-pool-size=2",
+            "spring.datasource.hikari.connection-timeout=500"})
+    class WithoutBulkhead {
+
+        @Autowired PlatformTransactionManager txManager;
+        @Autowired MemberRepository memberRepository;
+        @Autowired LogRepository logRepository;
+
+        @Test
+        void deadlockUntilPoolTimeout() throws Exception {
+            long start = System.currentTimeMillis();
+            List<Throwable> results = joinConcurrently(txManager, memberRepository, logRepository, "starvation_none");
+            long elapsed = System.currentTimeMillis() - start;
+
+            log.info("elapsed={}ms, results={}", elapsed, results);
+            assertThat(results).filteredOn(result -> result != null).isNotEmpty();
+            assertThat(elapsed).isGreaterThanOrEqualTo(CONNECTION_TIMEOUT_MILLIS);
+        }
+    }
+
+    /**
+     * 별도 풀(bulkhead): REQUIRES_NEW 커넥션은 별도 풀에서 꺼내므로 모두 성공한다.
+     */
+    @Nested
+    @SpringBootTest(properties = {
+            "spring.datasource.hikari.maximum-pool-size=2",
+            "spring.datasource.hikari.connection-timeout=500",
+            "springtx.datasource.bulkhead.enabled=true",
+            "springtx.datasource.bulkhead.nested-pool-size=2"})
+    class WithBulkhead {
+
+        @Autowired PlatformTransactionManager txManager;
+        @Autowired MemberRepository memberRepository;
+        @Autowired LogRepository logRepository;
+
+        @Test
+        void allSucceed() throws Exception {
+            List<Throwable> results = joinConcurrently(txManager, memberRepository, logRepository, "starvation_bulkhead");
+
+            assertThat(results).containsOnlyNulls();
+            for (int i = 0; i < POOL_SIZE; i++) {
+                assertThat(logRepository.find("starvation_bulkhead_" + i)).isPresent();
+            }
+        }
+    }
+
+    /**
+     * 외부 트랜잭션에서 회원 저장 후, 모든 쓰레드가 커넥션을 잡은 상태에서 REQUIRES_NEW 로 로그 저장
+     * @return 쓰레드별 실패 예외 (성공하면 null)
+     */
+    static List<Throwable> joinConcurrently(PlatformTransactionManager txManager, MemberRepository memberRepository,
+                                            LogRepository logRepository, String prefix) throws Exception {
+        TransactionTemplate outer = new TransactionTemplate(txManager);
+        TransactionTemplate inner = new TransactionTemplate(txManager);
+        inner.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        CyclicBarrier allHoldConnection = new CyclicBarrier(POOL_SIZE);
+        ExecutorService executor = Executors.newFixedThreadPool(POOL_SIZE);
+        List<Future<Throwable>> futures = new ArrayList<>();
+        for (int i = 0; i < POOL_SIZE; i++) {
+            String username = prefix + "_" + i;
+            futures.add(executor.submit(() -> {
+                try {
+                    outer.executeWithoutResult(status -> {
+                        memberRepository.save(new Member(username));
+                        await(allHoldConnection);
+                        inner.executeWithoutResult(innerStatus -> logRepository.save(new Log(username)));
+                    });
+                    return null;
+                } catch (RuntimeException e) {
+                    return e;
+                }
+            }));
+        }
+
+        List<Throwable> results = new ArrayList<>();
+        for (Future<Throwable> future : futures) {
+            results.add(future.get(10, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+        return results;
+    }
+
+    private static void await(CyclicBarrier barrier) {
+        try {
+            barrier.await(5, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.study.springtx.datasource;
+
+import com.study.springtx.common.JdbcCounter;
+import com.study.springtx.propagation.Log;
+import com.study.springtx.propagation.LogRepository;
+import com.study.springtx.propagation.Member;
+import com.study.springtx.propagation.MemberRepository;
+import com.study.springtx.tx.RollbackOnlyTransactions;
+import com.study.springtx.tx.TransactionRollbackOnlyException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.UnexpectedRollbackException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * rollback-only 로 표시된 트랜잭션의 남은 SQL 은 커밋까지 가지 않고 바로 실패한다.
+ * - MemberServiceTest.recoverException_fail 과 같은 상황: 참여한 로그 저장이 실패했지만 바깥에서 예외를 잡고 계속 진행
+ */
+@SpringBootTest(properties = {
+        "springtx.datasource.fail-fast-rollback-only=true",
+        "springtx.member.cache.enabled=false"
+})
+@Import(JdbcCounter.class)
+class FailFastRollbackOnlyTest {
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired LogRepository logRepository;
+    @Autowired PlatformTransactionManager txManager;
+    @Autowired JdbcCounter counter;
+
+    @Test
+    void failFastAfterParticipantFailure() {
+        // given
+        TransactionTemplate outer = new TransactionTemplate(txManager);
+        String username = "로그예외_failFast";
+
+        // when
+        assertThatThrownBy(() -> outer.executeWithoutResult(status -> {
+            memberRepository.save(new Member(username));
+            assertThat(RollbackOnlyTransactions.isRollbackOnly()).isFalse();
+            try {
+                logRepository.save(new Log(username));
+            } catch (RuntimeException e) {
+                // 예외를 잡아도 물리 트랜잭션은 이미 rollback-only
+            }
+            assertThat(RollbackOnlyTransactions.isRollbackOnly()).isTrue();
+
+            counter.reset();
+            memberRepository.exists("failFast_other");
+        })).isInstanceOf(TransactionRollbackOnlyException.class);
+
+        // then: 남은 쿼리는 실행하지 않고, 모두 롤백
+        assertThat(counter.statements()).isZero();
+        assertThat(memberRepository.find(username)).isEmpty();
+        assertThat(logRepository.find(username)).isEmpty();
+    }
+
+    @Test
+    void requiresNewStillRuns() {
+        // given
+        TransactionTemplate outer = new TransactionTemplate(txManager);
+        TransactionTemplate requiresNew = new TransactionTemplate(txManager);
+        requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        // when: rollback-only 인 트랜잭션과 별개인 새 트랜잭션은 실행된다.
+        assertThatThrownBy(() -> outer.executeWithoutResult(status -> {
+            try {
+                logRepository.save(new Log("로그예외_failFast_requiresNew"));
+            } catch (RuntimeException e) {
+                // 예외를 잡고 계속 진행
+            }
+            requiresNew.executeWithoutResult(inner -> memberRepository.save(new Member("failFast_requiresNew")));
+        })).isInstanceOf(UnexpectedRollbackException.class);
+
+        // then
+        assertThat(memberRepository.find("failFast_requiresNew")).isPresent();
+    }
+}
@@ -0,0 +1,122 @@
+package com.study.springtx.datasource;
+
+import com.study.springtx.common.JdbcCounter;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 커넥션 지연 획득
+ * - SQL 을 실행하지 않는 트랜잭션은 풀에서 커넥션을 꺼내지 않는다.
+ * - DB 와 무관한 작업을 먼저 하는 트랜잭션은 첫 SQL 실행 시점부터만 커넥션을 점유한다.
+ */
+@Slf4j
+@SpringBootTest(properties = "springtx.datasource.lazy-connection=true")
+@Import(JdbcCounter.class)
+class LazyConnectionTest {
+
+    static final int THREADS = 8;
+
+    @Autowired JdbcCounter counter;
+    @Autowired LazyService service;
+    @Autowired DataSource dataSource;
+    @Autowired PlatformTransactionManager txManager;
+
+    @Test
+    void noConnectionForDbFreeTx() {
+        // when
+        counter.reset();
+        service.internal();
+
+        // then
+        assertThat(counter.connections()).isZero();
+    }
+
+    /**
+     * SQL 을 실행하지 않는 트랜잭션 THREADS 개가 동시에 열려 있는 동안 점유한 커넥션 수
+     * - 비교 기준: 같은 풀을 트랜잭션 시작 시점에 커넥션을 꺼내는 매니저(DataSourceTransactionManager)로 사용
+     */
+    @Test
+    void noConnectionsHeldUnderConcurrentLoad() throws Exception {
+        // given
+        DataSource pool = ((LazyConnectionDataSourceProxy) dataSource).getTargetDataSource();
+        TransactionTemplate eager = new TransactionTemplate(new DataSourceTransactionManager(pool));
+        TransactionTemplate lazy = new TransactionTemplate(txManager);
+
+        // when
+        int eagerConnections = openConnectionsWhileInside(eager);
+        int lazyConnections = openConnectionsWhileInside(lazy);
+
+        // then: 지연 획득은 트랜잭션이 열려 있어도 커넥션을 점유하지 않는다.
+        log.info("eager={}, lazy={}", eagerConnections, lazyConnections);
+        assertThat(eagerConnections).isEqualTo(THREADS);
+        assertThat(lazyConnections).isZero();
+    }
+
+    // THREADS 개의 트랜잭션이 모두 시작된 뒤, 끝나기 전에 열려 있는 커넥션 수
+    private int openConnectionsWhileInside(TransactionTemplate template) throws Exception {
+        int before = counter.openConnections();
+        CountDownLatch entered = new CountDownLatch(THREADS);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> template.executeWithoutResult(status -> {
+                    entered.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                })));
+            }
+            assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+            int open = counter.openConnections() - before;
+
+            release.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            return open;
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @TestConfiguration
+    static class LazyConnectionTestConfig {
+        @Bean
+        LazyService lazyService() {
+            return new LazyService();
+        }
+    }
+
+    static class LazyService {
+
+        @Transactional
+        public void internal() {
+        }
+    }
+}
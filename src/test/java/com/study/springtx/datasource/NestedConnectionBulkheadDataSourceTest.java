@@ -0,0 +1,59 @@
+package com.study.springtx.datasource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 이미 커넥션을 가진 쓰레드의 추가 커넥션은 별도 풀에서 꺼낸다. (getConnection(username, password) 포함)
+ */
+class NestedConnectionBulkheadDataSourceTest {
+
+    static final String MAIN_URL = "jdbc:h2:mem:bulkhead_main";
+    static final String NESTED_URL = "jdbc:h2:mem:bulkhead_nested";
+
+    @Test
+    void nestedFromBulkhead() throws Exception {
+        // given
+        NestedConnectionBulkheadDataSource dataSource = new NestedConnectionBulkheadDataSource(
+                new DriverManagerDataSource(MAIN_URL, "sa", ""), new DriverManagerDataSource(NESTED_URL, "sa", ""));
+
+        // when / then
+        try (Connection outer = dataSource.getConnection()) {
+            assertThat(outer.getMetaData().getURL()).isEqualTo(MAIN_URL);
+            try (Connection nested = dataSource.getConnection("sa", "")) {
+                assertThat(nested.getMetaData().getURL()).isEqualTo(NESTED_URL);
+            }
+            try (Connection nested = dataSource.getConnection()) {
+                assertThat(nested.getMetaData().getURL()).isEqualTo(NESTED_URL);
+            }
+        }
+
+        // then: 모두 반납하면 다시 기본 풀
+        try (Connection outer = dataSource.getConnection("sa", "")) {
+            assertThat(outer.getMetaData().getURL()).isEqualTo(MAIN_URL);
+        }
+    }
+
+    @Test
+    void starvationWhenBulkheadExhausted() throws Exception {
+        // given
+        DataSource exhausted = mock(DataSource.class);
+        when(exhausted.getConnection()).thenThrow(new SQLTransientConnectionException("Connection is not available"));
+        NestedConnectionBulkheadDataSource dataSource = new NestedConnectionBulkheadDataSource(
+                new DriverManagerDataSource(MAIN_URL, "sa", ""), exhausted);
+
+        // when / then
+        try (Connection outer = dataSource.getConnection()) {
+            assertThatThrownBy(dataSource::getConnection).isInstanceOf(ConnectionStarvationException.class);
+        }
+    }
+}
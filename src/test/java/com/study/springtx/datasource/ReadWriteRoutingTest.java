@@ -0,0 +1,89 @@
+package com.study.springtx.datasource;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * readOnly 트랜잭션은 replica, 쓰기 트랜잭션은 primary 로 라우팅
+ * - 로컬에서는 H2 메모리 DB 두 개(primary, replica)로 확인한다.
+ */
+@Slf4j
+@SpringBootTest(properties = {
+        "springtx.datasource.routing.enabled=true",
+        "spring.datasource.url=jdbc:h2:mem:primary",
+        "springtx.datasource.routing.replica.url=jdbc:h2:mem:replica"})
+class ReadWriteRoutingTest {
+
+    @Autowired
+    RoutingService service;
+
+    @Test
+    void readOnlyToReplica() {
+        assertThat(service.read()).isEqualToIgnoringCase("replica");
+    }
+
+    @Test
+    void writeToPrimary() {
+        assertThat(service.write()).isEqualToIgnoringCase("primary");
+    }
+
+    @Test
+    void readOnlyManualFlush() {
+        assertThat(service.readFlushMode()).isEqualTo(FlushMode.MANUAL);
+        assertThat(service.writeFlushMode()).isEqualTo(FlushMode.AUTO);
+    }
+
+    @TestConfiguration
+    static class ReadWriteRoutingTestConfig {
+        @Bean
+        RoutingService routingService(JdbcTemplate jdbcTemplate, EntityManager em) {
+            return new RoutingService(jdbcTemplate, em);
+        }
+    }
+
+    @Slf4j
+    @RequiredArgsConstructor
+    @Transactional(readOnly = true)
+    static class RoutingService {
+
+        private final JdbcTemplate jdbcTemplate;
+        private final EntityManager em;
+
+        public String read() {
+            return currentDatabase();
+        }
+
+        @Transactional
+        public String write() {
+            return currentDatabase();
+        }
+
+        public FlushMode readFlushMode() {
+            return em.unwrap(Session.class).getHibernateFlushMode();
+        }
+
+        @Transactional
+        public FlushMode writeFlushMode() {
+            return em.unwrap(Session.class).getHibernateFlushMode();
+        }
+
+        private String currentDatabase() {
+            String database = jdbcTemplate.queryForObject("select database()", String.class);
+            log.info("database = {}", database);
+            return database;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.study.springtx.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.study.springtx.order.Order;
+import com.study.springtx.order.OrderRepository;
+import com.study.springtx.propagation.Log;
+import com.study.springtx.propagation.LogRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionTimedOutException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@Slf4j
+@SpringBootTest
+@AutoConfigureMockMvc
+class ExportServiceTest {
+
+    @Autowired ExportService exportService;
+    @Autowired ExportRepository exportRepository;
+    @Autowired OrderRepository orderRepository;
+    @Autowired LogRepository logRepository;
+    @Autowired ObjectMapper objectMapper;
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired MockMvc mockMvc;
+
+    @Test
+    void exportOrdersAsNdjson() {
+        // given
+        Order order = saveOrder("export_ndjson");
+
+        // when
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long rows = exportService.exportOrders(ExportFormat.NDJSON, out);
+
+        // then: 한 줄에 JSON 객체 1 개
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(rows).isEqualTo(lines.length);
+        assertThat(lines).anySatisfy(line -> assertThat(line)
+                .startsWith("{\"id\":" + order.getId() + ",")
+                .contains("\"username\":\"export_ndjson\""));
+    }
+
+    @Test
+    void exportLogsAsCsv() {
+        // given: 쉼표와 따옴표는 CSV 규칙대로 감싼다.
+        logRepository.save(new Log("export, \"csv\""));
+
+        // when
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long rows = exportService.exportLogs(ExportFormat.CSV, out);
+
+        // then
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertThat(lines[0]).isEqualTo("id,message");
+        assertThat(lines).hasSize((int) rows + 1);
+        assertThat(lines).anySatisfy(line -> assertThat(line).endsWith(",\"export, \"\"csv\"\"\""));
+    }
+
+    /**
+     * timeout 이 지나면 내보내기를 중단하고 트랜잭션(커넥션)을 반환
+     */
+    @Test
+    void timeout() {
+        // given
+        saveOrder("export_timeout");
+        ExportProperties properties = new ExportProperties();
+        properties.setTimeout(Duration.ZERO);
+        ExportService service = new ExportService(exportRepository, properties, objectMapper, transactionManager);
+
+        // when
+        assertThatThrownBy(() -> service.exportOrders(ExportFormat.NDJSON, new ByteArrayOutputStream()))
+                .isInstanceOf(TransactionTimedOutException.class);
+    }
+
+    /**
+     * 응답 쓰기가 느려서 timeout 을 넘기면 마지막 flush 에서도 중단하고 롤백
+     */
+    @Test
+    void timeoutWhileWriting() {
+        // given: 쓰기 한 번에 timeout 보다 오래 걸리는 클라이언트
+        saveOrder("export_slow_client");
+        ExportProperties properties = new ExportProperties();
+        properties.setTimeout(Duration.ofMillis(200));
+        ExportService service = new ExportService(exportRepository, properties, objectMapper, transactionManager);
+        OutputStream slowClient = new OutputStream() {
+            @Override
+            public void write(int b) {
+                sleep(300);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                sleep(300);
+            }
+        };
+
+        // when
+        assertThatThrownBy(() -> service.exportOrders(ExportFormat.NDJSON, slowClient))
+                .isInstanceOf(TransactionTimedOutException.class);
+    }
+
+    @Test
+    void exportEndpoint() throws Exception {
+        // given
+        saveOrder("export_http");
+
+        // when
+        MvcResult result = mockMvc.perform(get("/export/orders").param("format", "csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // then
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv;charset=UTF-8"));
+        assertThat(result.getResponse().getContentAsString(StandardCharsets.UTF_8)).contains(",export_http,");
+        mockMvc.perform(get("/export/orders").param("format", "xml"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private Order saveOrder(String username) {
+        Order order = new Order();
+        order.setUsername(username);
+        order.setPayStatus("완료");
+        return orderRepository.save(order);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.study.springtx.order;
+
+import com.study.springtx.common.JdbcCounter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Import;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * 멱등 키로 재시도한 주문은 주문을 다시 저장하거나 결제를 다시 하지 않는다.
+ * - 최근 키: 메모리에서 응답 (DB 왕복 없음)
+ * - 메모리에서 밀려난 키: 유니크 제약으로 판단해서 저장된 주문으로 응답
+ * - 동시 요청: 먼저 실행 중인 요청의 결과를 기다림
+ * - 같은 키로 다른 내용의 주문: 거절
+ */
+@SpringBootTest(properties = "springtx.payment.stub-latency=200ms")
+@Import(JdbcCounter.class)
+class OrderIdempotencyTest {
+
+    @Autowired OrderService orderService;
+    @Autowired OrderIdempotency idempotency;
+    @Autowired JdbcCounter counter;
+    @SpyBean PaymentGateway paymentGateway;
+
+    @Test
+    void replayFromMemory() throws NotEnoughMoneyException {
+        // given
+        Order first = newOrder("정상");
+        orderService.order(first, "replay-memory");
+
+        // when
+        counter.reset();
+        Order retry = newOrder("정상");
+        orderService.order(retry, "replay-memory");
+
+        // then
+        assertThat(retry.getId()).isEqualTo(first.getId());
+        assertThat(retry.getPayStatus()).isEqualTo("완료");
+        assertThat(counter.statements()).isZero();
+        verify(paymentGateway, times(1)).pay(argThat(order -> "replay-memory".equals(order.getIdempotencyKey())));
+    }
+
+    @Test
+    void replayPending() {
+        // given
+        Order first = newOrder("잔고부족");
+        assertThatThrownBy(() -> orderService.order(first, "replay-pending"))
+                .isInstanceOf(NotEnoughMoneyException.class);
+
+        // when : 잔고 부족 응답도 그대로 다시 돌려준다.
+        Order retry = newOrder("잔고부족");
+        assertThatThrownBy(() -> orderService.order(retry, "replay-pending"))
+                .isInstanceOf(NotEnoughMoneyException.class);
+
+        // then
+        assertThat(retry.getId()).isEqualTo(first.getId());
+        assertThat(retry.getPayStatus()).isEqualTo("대기");
+        verify(paymentGateway, times(1)).pay(argThat(order -> "replay-pending".equals(order.getIdempotencyKey())));
+    }
+
+    @Test
+    void replayFromUniqueConstraint() throws NotEnoughMoneyException {
+        // given : 다른 노드에서 처리했거나 메모리에서 밀려난 키
+        Order first = newOrder("정상");
+        orderService.order(first, "replay-db");
+        idempotency.invalidateAll();
+
+        // when
+        Order retry = newOrder("정상");
+        orderService.order(retry, "replay-db");
+
+        // then
+        assertThat(retry.getId()).isEqualTo(first.getId());
+        assertThat(retry.getPayStatus()).isEqualTo("완료");
+        verify(paymentGateway, times(1)).pay(argThat(order -> "replay-db".equals(order.getIdempotencyKey())));
+    }
+
+    @Test
+    void rejectDifferentRequestWithSameKey() throws NotEnoughMoneyException {
+        // given
+        Order first = newOrder("정상");
+        orderService.order(first, "reuse-key");
+
+        // when : 같은 키로 다른 사용자의 주문
+        Order other = newOrder("정상_다른사용자");
+        assertThatThrownBy(() -> orderService.order(other, "reuse-key"))
+                .isInstanceOf(IdempotencyKeyMismatchException.class);
+
+        // 메모리에서 밀려난 키도 저장된 요청 내용으로 비교
+        idempotency.invalidateAll();
+        assertThatThrownBy(() -> orderService.order(newOrder("정상_다른사용자"), "reuse-key"))
+                .isInstanceOf(IdempotencyKeyMismatchException.class);
+
+        // then : 처음 주문의 결과를 돌려주지 않는다.
+        assertThat(other.getId()).isNull();
+        verify(paymentGateway, times(1)).pay(argThat(order -> "reuse-key".equals(order.getIdempotencyKey())));
+    }
+
+    @Test
+    void rolledBackOrderCanRetry() {
+        // given
+        assertThatThrownBy(() -> orderService.order(newOrder("예외"), "retry-after-rollback"))
+                .isInstanceOf(RuntimeException.class);
+
+        // when : 롤백된 결과는 기억하지 않으므로 다시 실행한다.
+        assertThatThrownBy(() -> orderService.order(newOrder("예외"), "retry-after-rollback"))
+                .isInstanceOf(RuntimeException.class);
+
+        // then
+        verify(paymentGateway, times(2)).pay(argThat(order -> "retry-after-rollback".equals(order.getIdempotencyKey())));
+    }
+
+    @Test
+    void concurrentDuplicateWaits() throws Exception {
+        // given
+        int threads = 4;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        // when : 결제(200ms) 중에 같은 키로 요청
+        List<Future<Long>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < threads; i++) {
+                Callable<Long> task = () -> {
+                    start.await();
+                    Order order = newOrder("정상");
+                    orderService.order(order, "concurrent");
+                    return order.getId();
+                };
+                futures.add(executor.submit(task));
+            }
+            start.countDown();
+
+            // then
+            Long orderId = futures.get(0).get();
+            for (Future<Long> future : futures) {
+                assertThat(future.get()).isEqualTo(orderId);
+            }
+        } finally {
+            executor.shutdown();
+        }
+        verify(paymentGateway, times(1)).pay(argThat(order -> "concurrent".equals(order.getIdempotencyKey())));
+    }
+
+    private Order newOrder(String username) {
+        Order order = new Order();
+        order.setUsername(username);
+        return order;
+    }
+}
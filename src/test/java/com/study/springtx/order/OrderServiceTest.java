@@ -1,13 +1,28 @@
 package com.study.springtx.order;
 
+import com.study.springtx.outbox.Outbox;
+import com.study.springtx.outbox.OutboxEvent;
+import com.study.springtx.outbox.OutboxEventRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
 
+import java.time.Duration;
+import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 /**
  * 스프링은 체크 예외는 커밋하고, 언체크(런타임) 예외는 롤백
@@ -20,6 +35,9 @@ class OrderServiceTest {
 
     @Autowired OrderService orderService;
     @Autowired OrderRepository orderRepository;
+    @Autowired OutboxEventRepository outboxEventRepository;
+    @SpyBean PaymentGateway paymentGateway;
+    @SpyBean Outbox outbox;
 
     @Test
     void order() throws NotEnoughMoneyException {
@@ -68,4 +86,198 @@ class OrderServiceTest {
         Order findOrder = orderRepository.findById(order.getId()).get();
         assertThat(findOrder.getPayStatus()).isEqualTo("대기");
     }
-}
\ No newline at end of file
+
+    /**
+     * 여러 주문을 청크 단위로 커밋
+     * - 시스템 예외 주문만 롤백되고, 같은 청크의 나머지 주문은 커밋된다.
+     * - 결제 결과를 모르는 주문은 "결제중" 으로 남는다.
+     */
+    @Test
+    void orderAll() {
+        // given
+        List<Order> orders = Stream.of("정상", "예외", "잔고부족", "정상", "예외", "정상", "잔고부족", "타임아웃")
+                .map(username -> {
+                    Order order = new Order();
+                    order.setUsername(username);
+                    return order;
+                })
+                .collect(Collectors.toList());
+
+        // when
+        List<OrderResult> results = orderService.orderAll(orders, 3);
+
+        // then
+        assertThat(results).extracting(OrderResult::getOutcome).containsExactly(
+                OrderOutcome.COMPLETED, OrderOutcome.FAILED, OrderOutcome.PENDING,
+                OrderOutcome.COMPLETED, OrderOutcome.FAILED, OrderOutcome.COMPLETED, OrderOutcome.PENDING,
+                OrderOutcome.UNKNOWN);
+
+        for (OrderResult result : results) {
+            Order order = result.getOrder();
+            switch (result.getOutcome()) {
+                case COMPLETED:
+                    assertThat(orderRepository.findById(order.getId()).get().getPayStatus()).isEqualTo("완료");
+                    break;
+                case PENDING:
+                    assertThat(orderRepository.findById(order.getId()).get().getPayStatus()).isEqualTo("대기");
+                    break;
+                case FAILED:
+                    assertThat(order.getId()).isNull();
+                    break;
+                case UNKNOWN:
+                    assertThat(orderRepository.findById(order.getId()).get().getPayStatus()).isEqualTo("결제중");
+                    break;
+            }
+        }
+    }
+
+    /**
+     * 청크 저장 커밋이 실패하면 주문 1건씩 다시 저장
+     * - 롤백된 청크가 남긴 id, version 을 지우지 않으면 save() 가 merge 로 복사본을 저장해서 주문의 id 가 비게 된다.
+     */
+    @Test
+    void orderAll_chunkSaveFailure() {
+        // given: 같은 멱등 키의 주문 때문에 청크 커밋이 유니크 제약 위반으로 실패
+        String idempotencyKey = UUID.randomUUID().toString();
+        Order first = newOrder("정상", idempotencyKey);
+        Order duplicate = newOrder("정상", idempotencyKey);
+        Order pending = newOrder("잔고부족", null);
+
+        // when
+        List<OrderResult> results = orderService.orderAll(List.of(first, duplicate, pending), 3);
+
+        // then
+        assertThat(results).extracting(OrderResult::getOutcome)
+                .containsExactly(OrderOutcome.COMPLETED, OrderOutcome.FAILED, OrderOutcome.PENDING);
+        assertThat(first.getId()).isNotNull();
+        assertThat(orderRepository.findById(first.getId()).get().getPayStatus()).isEqualTo("완료");
+        assertThat(duplicate.getId()).isNull();
+        assertThat(orderRepository.findById(pending.getId()).get().getPayStatus()).isEqualTo("대기");
+        assertThat(outboxEventRepository.findAll()).extracting(OutboxEvent::orderingKey)
+                .contains("order:" + first.getId())
+                .doesNotContain("order:null");
+    }
+
+    /**
+     * 결제 결과를 반영하는 청크 트랜잭션이 실패하면 주문 1건씩 다시 반영
+     * - 이미 받은 결제 결과를 사용하므로 결제는 주문마다 한 번만 한다.
+     */
+    @Test
+    void orderAll_chunkApplyFailure() {
+        // given: 청크의 첫 완료 이벤트 저장이 실패해서 결과 반영 트랜잭션이 롤백된다.
+        doThrow(new IllegalStateException("outbox 저장 실패")).doCallRealMethod()
+                .when(outbox).append(eq("order"), any(), eq("OrderCompleted"), any());
+        List<Order> orders = List.of(newOrder("정상", null), newOrder("잔고부족", null), newOrder("정상", null));
+
+        // when
+        List<OrderResult> results = orderService.orderAll(orders, 3);
+
+        // then
+        assertThat(results).extracting(OrderResult::getOutcome)
+                .containsExactly(OrderOutcome.COMPLETED, OrderOutcome.PENDING, OrderOutcome.COMPLETED);
+        for (Order order : orders) {
+            verify(paymentGateway, times(1)).pay(same(order));
+        }
+        assertThat(orderRepository.findById(orders.get(0).getId()).get().getPayStatus()).isEqualTo("완료");
+        assertThat(orderRepository.findById(orders.get(1).getId()).get().getPayStatus()).isEqualTo("대기");
+        assertThat(orderRepository.findById(orders.get(2).getId()).get().getPayStatus()).isEqualTo("완료");
+    }
+
+    private static Order newOrder(String username, String idempotencyKey) {
+        Order order = new Order();
+        order.setUsername(username);
+        order.setIdempotencyKey(idempotencyKey);
+        return order;
+    }
+
+    /**
+     * 예외 대신 결과를 반환하는 주문 API
+     * - 잔고 부족은 "대기" 로 커밋, 시스템 예외는 롤백
+     */
+    @Test
+    void placeOrder() {
+        // given
+        Order pendingOrder = new Order();
+        pendingOrder.setUsername("잔고부족");
+        Order failedOrder = new Order();
+        failedOrder.setUsername("예외");
+
+        // when
+        OrderResult pending = orderService.placeOrder(pendingOrder);
+        OrderResult failed = orderService.placeOrder(failedOrder);
+
+        // then
+        assertThat(pending.getOutcome()).isEqualTo(OrderOutcome.PENDING);
+        assertThat(orderRepository.findById(pendingOrder.getId()).get().getPayStatus()).isEqualTo("대기");
+        assertThat(failed.getOutcome()).isEqualTo(OrderOutcome.FAILED);
+        assertThat(orderRepository.findById(failedOrder.getId())).isEmpty();
+    }
+
+    /**
+     * 결제 호출을 트랜잭션 밖으로 분리한 주문
+     * - 결과는 placeOrder() 와 같다.
+     */
+    @Test
+    void placeOrderStaged() {
+        // given
+        Order completedOrder = new Order();
+        completedOrder.setUsername("정상");
+        Order pendingOrder = new Order();
+        pendingOrder.setUsername("잔고부족");
+        Order failedOrder = new Order();
+        failedOrder.setUsername("예외");
+
+        // when
+        OrderResult completed = orderService.placeOrderStaged(completedOrder);
+        OrderResult pending = orderService.placeOrderStaged(pendingOrder);
+        OrderResult failed = orderService.placeOrderStaged(failedOrder);
+
+        // then
+        assertThat(completed.getOutcome()).isEqualTo(OrderOutcome.COMPLETED);
+        assertThat(orderRepository.findById(completedOrder.getId()).get().getPayStatus()).isEqualTo("완료");
+        assertThat(pending.getOutcome()).isEqualTo(OrderOutcome.PENDING);
+        assertThat(orderRepository.findById(pendingOrder.getId()).get().getPayStatus()).isEqualTo("대기");
+        assertThat(failed.getOutcome()).isEqualTo(OrderOutcome.FAILED);
+        assertThat(orderRepository.findById(failedOrder.getId())).isEmpty();
+    }
+
+    /**
+     * 게이트웨이가 결제한 뒤 응답 전에 예외(타임아웃)가 나면 결제 여부를 모르므로 주문을 지우지 않는다.
+     * - "결제중" 으로 남은 주문은 복구 작업이 결제 결과를 조회해서 마무리한다.
+     */
+    @Test
+    void placeOrderStaged_unknown() {
+        // given
+        Order order = new Order();
+        order.setUsername("타임아웃");
+
+        // when
+        OrderResult result = orderService.placeOrderStaged(order);
+
+        // then
+        assertThat(result.getOutcome()).isEqualTo(OrderOutcome.UNKNOWN);
+        assertThat(orderRepository.findById(order.getId()).get().getPayStatus()).isEqualTo("결제중");
+
+        orderService.recoverStuckOrders(Duration.ZERO);
+        assertThat(orderRepository.findById(order.getId()).get().getPayStatus()).isEqualTo("완료");
+    }
+
+    /**
+     * 결과 반영 전에 중단되어 "결제중" 으로 남은 주문은 결제 결과를 조회해서 마무리
+     */
+    @Test
+    void recoverStuckOrders() {
+        // given: 결제 호출 후 결과를 반영하지 못한 주문
+        Order order = new Order();
+        order.setUsername("정상");
+        order.setPayStatus("결제중");
+        orderRepository.save(order);
+
+        // when
+        int recovered = orderService.recoverStuckOrders(Duration.ZERO);
+
+        // then
+        assertThat(recovered).isGreaterThanOrEqualTo(1);
+        assertThat(orderRepository.findById(order.getId()).get().getPayStatus()).isEqualTo("완료");
+    }
+}
@@ -0,0 +1,72 @@
+package com.study.springtx.order;
+
+import com.study.springtx.common.JdbcCounter;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 결제 호출(100ms)을 트랜잭션 안에서 하면 결제 시간 동안 커넥션을 점유한다.
+ * 트랜잭션 밖으로 분리하면 같은 부하에서 동시에 점유하는 커넥션 수가 줄어든다.
+ */
+@Slf4j
+@SpringBootTest(properties = "springtx.payment.stub-latency=100ms")
+@Import(JdbcCounter.class)
+class StagedPaymentLoadTest {
+
+    static final int THREADS = 8;
+
+    @Autowired JdbcCounter counter;
+    @Autowired OrderService orderService;
+
+    @Test
+    void lowerPeakConnections() throws Exception {
+        // when
+        int inTxPeak = peakConnections(() -> {
+            orderService.placeOrder(newOrder());
+            return null;
+        });
+        int stagedPeak = peakConnections(() -> {
+            orderService.placeOrderStaged(newOrder());
+            return null;
+        });
+
+        // then
+        log.info("peak connections inTx={}, staged={}", inTxPeak, stagedPeak);
+        assertThat(stagedPeak).isLessThan(inTxPeak);
+    }
+
+    private int peakConnections(Callable<Void> task) throws Exception {
+        counter.reset();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS * 4; i++) {
+                futures.add(executor.submit(task));
+            }
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        return counter.peakConnections();
+    }
+
+    private Order newOrder() {
+        Order order = new Order();
+        order.setUsername("정상");
+        return order;
+    }
+}
@@ -0,0 +1,43 @@
+package com.study.springtx.outbox;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 테스트용 발행기: 발행한 이벤트를 메모리에 보관하고, 지정한 key 는 발행에 실패한다.
+ */
+public class InMemoryOutboxPublisher implements OutboxPublisher {
+
+    private final List<OutboxEvent> published = Collections.synchronizedList(new ArrayList<>());
+    private final Set<String> failingKeys = Collections.synchronizedSet(new HashSet<>());
+
+    @Override
+    public void publish(OutboxEvent event) {
+        if (failingKeys.contains(event.orderingKey())) {
+            throw new IllegalStateException("발행 실패 key=" + event.orderingKey());
+        }
+        published.add(event);
+    }
+
+    public List<OutboxEvent> published() {
+        synchronized (published) {
+            return new ArrayList<>(published);
+        }
+    }
+
+    public void failFor(String orderingKey) {
+        failingKeys.add(orderingKey);
+    }
+
+    public void recover(String orderingKey) {
+        failingKeys.remove(orderingKey);
+    }
+
+    public void clear() {
+        published.clear();
+        failingKeys.clear();
+    }
+}
@@ -0,0 +1,172 @@
+package com.study.springtx.outbox;
+
+import com.study.springtx.order.NotEnoughMoneyException;
+import com.study.springtx.order.Order;
+import com.study.springtx.order.OrderService;
+import com.study.springtx.propagation.MemberService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 이벤트는 업무 데이터와 같은 트랜잭션으로 저장되고, 커밋된 이벤트만 relay 가 발행한다.
+ */
+@SpringBootTest(properties = {
+        "springtx.outbox.relay-enabled=false",
+        "springtx.outbox.batch-size=2",
+        "springtx.outbox.max-attempts=2"
+})
+class OutboxTest {
+
+    @Autowired OrderService orderService;
+    @Autowired MemberService memberService;
+    @Autowired OutboxRelay outboxRelay;
+    @Autowired InMemoryOutboxPublisher publisher;
+    @Autowired Outbox outbox;
+    @Autowired TransactionTemplate txTemplate;
+    @Autowired OutboxEventRepository outboxEventRepository;
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        @Primary
+        InMemoryOutboxPublisher inMemoryOutboxPublisher() {
+            return new InMemoryOutboxPublisher();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        outboxRelay.relay(); // 다른 테스트에서 남은 이벤트
+        publisher.clear();
+    }
+
+    @Test
+    void publishCommittedEventsOnly() throws NotEnoughMoneyException {
+        // given
+        Order completed = order("정상");
+        orderService.order(completed);
+        assertThatThrownBy(() -> orderService.order(order("예외"))).isInstanceOf(RuntimeException.class);
+        memberService.joinV1("outbox_member");
+
+        // when: batch-size=2 -> 배치 2번
+        int relayed = outboxRelay.relay();
+
+        // then: 롤백된 주문의 이벤트는 없음
+        assertThat(relayed).isEqualTo(2);
+        List<OutboxEvent> published = publisher.published();
+        assertThat(published).extracting(OutboxEvent::getEventType).containsExactly("OrderCompleted", "MemberJoined");
+        assertThat(published.get(0).getAggregateId()).isEqualTo(String.valueOf(completed.getId()));
+        assertThat(published.get(1).getPayload()).contains("\"username\":\"outbox_member\"");
+
+        // 다시 발행하지 않음
+        assertThat(outboxRelay.relay()).isZero();
+    }
+
+    @Test
+    void orderingPerKey() {
+        // given: key 1 의 이벤트 2개, key 2 의 이벤트 1개
+        txTemplate.executeWithoutResult(status -> {
+            outbox.append("test", 1, "First", "1-1");
+            outbox.append("test", 2, "First", "2-1");
+            outbox.append("test", 1, "Second", "1-2");
+        });
+
+        // when: key 1 발행이 실패하면 key 1 의 뒤 이벤트도 미루고 key 2 만 발행
+        publisher.failFor("test:1");
+        outboxRelay.relay();
+
+        // then
+        assertThat(payloads(publisher.published())).containsExactly("\"2-1\"");
+
+        // when: 복구되면 미뤄진 이벤트를 순서대로 발행
+        publisher.recover("test:1");
+        outboxRelay.relay();
+
+        // then
+        assertThat(payloads(publisher.published())).containsExactly("\"2-1\"", "\"1-1\"", "\"1-2\"");
+    }
+
+    /**
+     * 실패한 이벤트가 배치 앞에 있어도 같은 주기에 다른 aggregate 의 이벤트는 발행한다.
+     */
+    @Test
+    void failureDoesNotBlockOtherKeys() {
+        // given: batch-size=2, 앞의 배치를 실패하는 key 의 이벤트가 모두 차지
+        txTemplate.executeWithoutResult(status -> {
+            outbox.append("test", 3, "First", "3-1");
+            outbox.append("test", 3, "Second", "3-2");
+            outbox.append("test", 4, "First", "4-1");
+        });
+        publisher.failFor("test:3");
+
+        // when
+        int relayed = outboxRelay.relay();
+
+        // then
+        assertThat(relayed).isEqualTo(1);
+        assertThat(payloads(publisher.published())).containsExactly("\"4-1\"");
+        publisher.recover("test:3");
+        outboxRelay.relay();
+    }
+
+    /**
+     * 발행 실패가 max-attempts 에 이르면 보류(parked)하고, 그 aggregate 는 다시 시도할 때까지 발행하지 않는다.
+     */
+    @Test
+    void parkAfterMaxAttempts() {
+        // given
+        txTemplate.executeWithoutResult(status -> {
+            outbox.append("test", 5, "First", "5-1");
+            outbox.append("test", 5, "Second", "5-2");
+        });
+        publisher.failFor("test:5");
+
+        // when: 2번 실패하면 보류
+        outboxRelay.relay();
+        outboxRelay.relay();
+        publisher.recover("test:5");
+        outboxRelay.relay();
+
+        // then: 보류된 aggregate 는 발행이 복구되어도 건너뛴다.
+        assertThat(publisher.published()).isEmpty();
+        OutboxEvent head = parkedEvent("5");
+        assertThat(head.getAttempts()).isEqualTo(2);
+        assertThat(head.getPayload()).isEqualTo("\"5-1\"");
+
+        // when: 보류를 풀면 순서대로 발행
+        assertThat(outboxRelay.retryParked("test", "5")).isEqualTo(1);
+        outboxRelay.relay();
+
+        // then
+        assertThat(payloads(publisher.published())).containsExactly("\"5-1\"", "\"5-2\"");
+    }
+
+    private OutboxEvent parkedEvent(String aggregateId) {
+        return outboxEventRepository.findAll().stream()
+                .filter(event -> "test".equals(event.getAggregateType()) && aggregateId.equals(event.getAggregateId()))
+                .filter(event -> event.getParkedAt() != null)
+                .findFirst().orElseThrow();
+    }
+
+    private List<String> payloads(List<OutboxEvent> events) {
+        return events.stream().map(OutboxEvent::getPayload).collect(Collectors.toList());
+    }
+
+    private Order order(String username) {
+        Order order = new Order();
+        order.setUsername(username);
+        return order;
+    }
+}
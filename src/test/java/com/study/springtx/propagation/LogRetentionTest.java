@@ -0,0 +1,81 @@
+package com.study.springtx.propagation;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 로그는 생성 일자(bucket) 단위로 조회하고, 보관 기간이 지나면 작은 배치로 나누어 삭제한다.
+ */
+@SpringBootTest(properties = {
+        "springtx.log.retention.retention=30d",
+        "springtx.log.retention.batch-size=2",
+        "springtx.log.retention.batch-pause=0"
+})
+class LogRetentionTest {
+
+    @Autowired LogRepository logRepository;
+    @Autowired LogRetentionJob logRetentionJob;
+
+    @Test
+    void purgeExpired() {
+        // given: 보관 기간이 지난 로그 5건, 최근 로그 1건
+        for (int i = 0; i < 5; i++) {
+            logRepository.save(logCreatedAt("retention_old", LocalDateTime.now().minusDays(40)));
+        }
+        logRepository.save(new Log("retention_new"));
+
+        // when: 2건씩 3번의 트랜잭션으로 삭제
+        long purged = logRetentionJob.purgeExpired();
+
+        // then
+        assertThat(purged).isEqualTo(5);
+        assertThat(logRepository.find("retention_old")).isEmpty();
+        assertThat(logRepository.find("retention_new")).isPresent();
+    }
+
+    @Test
+    void findInRange() {
+        // given
+        LocalDateTime tenDaysAgo = LocalDateTime.now().minusDays(10);
+        logRepository.save(logCreatedAt("range", tenDaysAgo));
+        logRepository.save(new Log("range"));
+
+        // when
+        LocalDate today = LocalDate.now();
+        int lastWeek = logRepository.findInRange("range", today.minusDays(7), today).size();
+        int lastMonth = logRepository.findInRange("range", today.minusDays(30), today).size();
+
+        // then
+        assertThat(lastWeek).isEqualTo(1);
+        assertThat(lastMonth).isEqualTo(2);
+    }
+
+    /**
+     * find() 는 보관 기간(30일) 안의 bucket 만 조회한다.
+     */
+    @Test
+    void findWithinRetention() {
+        // given: 아직 삭제되지 않은 보관 기간 밖의 로그
+        logRepository.save(logCreatedAt("retention_window_old", LocalDateTime.now().minusDays(40)));
+        logRepository.save(logCreatedAt("retention_window_recent", LocalDateTime.now().minusDays(10)));
+
+        // then
+        assertThat(logRepository.find("retention_window_old")).isEmpty();
+        assertThat(logRepository.exists("retention_window_old")).isFalse();
+        assertThat(logRepository.find("retention_window_recent")).isPresent();
+        LocalDate today = LocalDate.now();
+        assertThat(logRepository.findInRange("retention_window_old", today.minusDays(60), today)).hasSize(1);
+    }
+
+    private Log logCreatedAt(String message, LocalDateTime createdAt) {
+        Log logMessage = new Log(message);
+        logMessage.setCreatedAt(createdAt);
+        return logMessage;
+    }
+}
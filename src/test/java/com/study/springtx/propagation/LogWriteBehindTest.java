@@ -0,0 +1,148 @@
+package com.study.springtx.propagation;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 로그 write-behind 모드
+ * - 회원은 즉시 커밋되고, 로그는 커밋 이후 백그라운드에서 저장된다.
+ */
+@Slf4j
+@SpringBootTest(properties = {
+        "springtx.log.write-behind.enabled=true",
+        "springtx.log.write-behind.flush-interval=50ms"})
+class LogWriteBehindTest {
+
+    @Autowired MemberService memberService;
+    @Autowired MemberRepository memberRepository;
+    @Autowired LogRepository logRepository;
+    @Autowired LogWriteBehindQueue logWriteBehindQueue;
+    @Autowired TransactionTemplate txTemplate;
+    @Autowired PlatformTransactionManager txManager;
+
+    @Test
+    void writeBehind_success() throws InterruptedException {
+        // given
+        String username = "writeBehind_success";
+
+        // when
+        memberService.joinV1(username);
+
+        // then: 회원은 바로 저장되고, 로그는 잠시 후 저장된다.
+        assertTrue(memberRepository.find(username).isPresent());
+        assertTrue(waitUntil(() -> logRepository.find(username).isPresent()));
+    }
+
+    /**
+     * 로그 저장 실패는 백그라운드에서 처리되므로 회원 가입은 유지된다.
+     */
+    @Test
+    void writeBehind_logFail() throws InterruptedException {
+        // given
+        String username = "로그예외_writeBehind_logFail";
+
+        // when
+        memberService.joinV1(username);
+
+        // then: member 저장, log 저장 실패
+        assertTrue(memberRepository.find(username).isPresent());
+        assertTrue(waitUntil(() -> logWriteBehindQueue.size() == 0));
+        Thread.sleep(200);
+        assertTrue(logRepository.find(username).isEmpty());
+    }
+
+    /**
+     * 회원 트랜잭션이 롤백되면 로그는 큐에 들어가지 않는다.
+     */
+    @Test
+    void writeBehind_rollback() throws InterruptedException {
+        // given
+        String username = "writeBehind_rollback";
+
+        // when
+        txTemplate.executeWithoutResult(status -> {
+            memberService.joinV1(username);
+            status.setRollbackOnly();
+        });
+
+        // then: 회원, 로그 모두 남지 않는다.
+        Thread.sleep(200);
+        assertTrue(memberRepository.find(username).isEmpty());
+        assertFalse(logRepository.find(username).isPresent());
+    }
+
+    /**
+     * 종료된 뒤에 들어온 로그는 버리지 않고 바로 저장한다.
+     */
+    @Test
+    void writeBehind_afterStop() {
+        // given
+        long syncSaved = logWriteBehindQueue.syncSaved();
+        logWriteBehindQueue.stop();
+
+        // when
+        try {
+            logWriteBehindQueue.enqueue(new Log("writeBehind_afterStop"));
+        } finally {
+            logWriteBehindQueue.start();
+        }
+
+        // then
+        assertEquals(syncSaved + 1, logWriteBehindQueue.syncSaved());
+        assertEquals(0, logWriteBehindQueue.size());
+        assertTrue(logRepository.find("writeBehind_afterStop").isPresent());
+    }
+
+    /**
+     * 큐 자리가 없으면 offerTimeout 동안 기다린 뒤 회원 트랜잭션 안에서 바로 저장한다. (로그를 버리지 않음)
+     */
+    @Test
+    void writeBehind_queueFull() throws InterruptedException {
+        // given: 자리 1개
+        LogWriteBehindProperties properties = new LogWriteBehindProperties();
+        properties.setEnabled(true);
+        properties.setQueueCapacity(1);
+        properties.setOfferTimeout(Duration.ofMillis(50));
+        LogWriteBehindQueue queue = new LogWriteBehindQueue(logRepository, txManager, properties, new SimpleMeterRegistry());
+        queue.start();
+
+        // when: 한 트랜잭션에서 2건 -> 두 번째는 자리가 없음
+        try {
+            txTemplate.executeWithoutResult(status -> {
+                queue.enqueue(new Log("writeBehind_queueFull_1"));
+                queue.enqueue(new Log("writeBehind_queueFull_2"));
+                // 바로 저장한 로그는 커밋 전에도 같은 트랜잭션에서 보인다.
+                assertTrue(logRepository.find("writeBehind_queueFull_2").isPresent());
+            });
+
+            // then
+            assertEquals(1, queue.syncSaved());
+            assertTrue(waitUntil(() -> logRepository.find("writeBehind_queueFull_1").isPresent()));
+        } finally {
+            queue.stop();
+        }
+    }
+
+    private boolean waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (System.currentTimeMillis() < deadline) {
+            if (condition.getAsBoolean()) {
+                return true;
+            }
+            Thread.sleep(20);
+        }
+        return false;
+    }
+}
@@ -0,0 +1,112 @@
+package com.study.springtx.propagation;
+
+import com.study.springtx.common.BloomFilter;
+import com.study.springtx.common.JdbcCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 없는 username 조회는 Bloom filter 에서 끝나고 DB 를 조회하지 않는다.
+ * - 회원 캐시를 꺼서 DB 조회 여부만 확인한다.
+ */
+@SpringBootTest(properties = {
+        "springtx.member.bloom.enabled=true",
+        "springtx.member.bloom.expected-insertions=1000",
+        "springtx.member.cache.enabled=false"
+})
+@Import(JdbcCounter.class)
+class MemberBloomFilterTest {
+
+    @Autowired MemberService memberService;
+    @Autowired MemberRepository memberRepository;
+    @Autowired MemberBloomFilter memberBloomFilter;
+    @Autowired TransactionTemplate txTemplate;
+    @Autowired MeterRegistry meterRegistry;
+    @Autowired JdbcCounter counter;
+
+    @Test
+    void definiteMissSkipsDb() {
+        // when
+        counter.reset();
+        boolean found = memberRepository.find("bloom_absent").isPresent();
+        boolean exists = memberRepository.exists("bloom_absent");
+
+        // then
+        assertThat(found).isFalse();
+        assertThat(exists).isFalse();
+        assertThat(counter.statements()).isZero();
+        assertThat(meterRegistry.get("springtx.member.bloom.lookups").tag("result", "negative").counter().count())
+                .isGreaterThanOrEqualTo(2);
+    }
+
+    @Test
+    void savedMemberFound() {
+        // when
+        memberService.joinV1("bloom_joined");
+
+        // then: 다시 만든 후에도 찾는다.
+        assertThat(memberRepository.find("bloom_joined")).isPresent();
+        memberBloomFilter.rebuild();
+        assertThat(memberRepository.find("bloom_joined")).isPresent();
+        assertThat(memberRepository.exists("bloom_joined")).isTrue();
+    }
+
+    @Test
+    void rolledBackMemberIsFalsePositiveUntilRebuild() {
+        // given: 롤백된 회원은 필터에 남는다.
+        txTemplate.executeWithoutResult(status -> {
+            memberService.joinV1("bloom_rollback");
+            status.setRollbackOnly();
+        });
+        double falsePositives = meterRegistry.get("springtx.member.bloom.lookups")
+                .tag("result", "false.positive").counter().count();
+
+        // when
+        boolean foundBeforeRebuild = memberRepository.find("bloom_rollback").isPresent();
+        memberBloomFilter.rebuild();
+        counter.reset();
+        boolean foundAfterRebuild = memberRepository.find("bloom_rollback").isPresent();
+
+        // then: 오탐은 DB 에서 확인하고, 다시 만든 후에는 DB 를 조회하지 않는다.
+        assertThat(foundBeforeRebuild).isFalse();
+        assertThat(foundAfterRebuild).isFalse();
+        assertThat(meterRegistry.get("springtx.member.bloom.lookups").tag("result", "false.positive").counter().count())
+                .isEqualTo(falsePositives + 1);
+        assertThat(counter.statements()).isZero();
+    }
+
+    @Test
+    void reportMemory() {
+        // then
+        assertThat(meterRegistry.get("springtx.member.bloom.memory").gauge().value()).isPositive();
+        assertThat(meterRegistry.get("springtx.member.bloom.fpp").gauge().value()).isLessThan(0.01);
+    }
+
+    @Test
+    void falsePositiveRate() {
+        // given
+        BloomFilter filter = BloomFilter.create(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("member_" + i);
+        }
+
+        // when
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(filter.mightContain("member_" + i)).isTrue();
+            if (filter.mightContain("absent_" + i)) {
+                falsePositives++;
+            }
+        }
+
+        // then: 목표 1% (여유를 두고 2% 미만)
+        assertThat(falsePositives).isLessThan(200);
+        assertThat(filter.expectedFalsePositiveRate()).isLessThan(0.02);
+    }
+}
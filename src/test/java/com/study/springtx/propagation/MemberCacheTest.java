@@ -0,0 +1,76 @@
+package com.study.springtx.propagation;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 회원 조회 캐시는 트랜잭션이 커밋된 후에만 반영된다.
+ * - 캐시 응답은 트랜잭션 밖이나 읽기 전용 트랜잭션에서만 사용한다.
+ */
+@SpringBootTest(properties = "springtx.member.cache.enabled=true")
+class MemberCacheTest {
+
+    @Autowired MemberService memberService;
+    @Autowired MemberRepository memberRepository;
+    @Autowired MemberCache memberCache;
+    @Autowired TransactionTemplate txTemplate;
+
+    @Test
+    void cacheAfterCommit() {
+        // given
+        String username = "cacheAfterCommit";
+
+        // when
+        memberService.joinV1(username);
+
+        // then: 커밋 후 캐시에 반영되어 DB 조회 없이 찾는다.
+        long hitCount = memberCache.stats().hitCount();
+        Member findMember = memberRepository.find(username).get();
+        assertThat(findMember.getUsername()).isEqualTo(username);
+        assertThat(memberCache.stats().hitCount()).isEqualTo(hitCount + 1);
+    }
+
+    @Test
+    void noGhostMemberAfterRollback() {
+        // given
+        String username = "noGhostMemberAfterRollback";
+
+        // when: 같은 트랜잭션에서 가입 후 조회하고 롤백
+        txTemplate.executeWithoutResult(status -> {
+            memberService.joinV1(username);
+            assertTrue(memberRepository.find(username).isPresent());
+            status.setRollbackOnly();
+        });
+
+        // then: 롤백된 회원은 캐시에도 DB에도 없다.
+        assertTrue(memberCache.get(username).isEmpty());
+        assertTrue(memberRepository.find(username).isEmpty());
+    }
+
+    @Test
+    void bypassInReadWriteTransaction() {
+        // given
+        String username = "bypassInReadWriteTransaction";
+        memberService.joinV1(username);
+        TransactionTemplate readOnly = new TransactionTemplate(txTemplate.getTransactionManager());
+        readOnly.setReadOnly(true);
+
+        // when: 읽기-쓰기 트랜잭션은 DB 를 조회
+        long hitCount = memberCache.stats().hitCount();
+        txTemplate.executeWithoutResult(status -> assertTrue(memberRepository.find(username).isPresent()));
+
+        // then
+        assertThat(memberCache.stats().hitCount()).isEqualTo(hitCount);
+
+        // when: 읽기 전용 트랜잭션은 캐시로 응답
+        readOnly.executeWithoutResult(status -> assertTrue(memberRepository.find(username).isPresent()));
+
+        // then
+        assertThat(memberCache.stats().hitCount()).isEqualTo(hitCount + 1);
+    }
+}
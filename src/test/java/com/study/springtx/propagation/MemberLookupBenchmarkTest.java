@@ -0,0 +1,85 @@
+package com.study.springtx.propagation;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 회원 100만 건에서 username 조회 비교 (./gradlew benchmark)
+ * - 기존: 인덱스 없음 + 일치하는 모든 행을 엔티티로 로딩한 뒤 하나만 사용
+ * - 변경: username 인덱스 + 첫 번째 행만 조회(limit 1), exists 는 엔티티 없이 id 만 조회
+ */
+@Slf4j
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "logging.level.org.hibernate.SQL=INFO",
+        "springtx.member.cache.enabled=false"})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class MemberLookupBenchmarkTest {
+
+    static final int ROWS = 1_000_000;
+    static final int DUPLICATES = 1_000;
+    static final int ITERATIONS = 50;
+    static final long ID_OFFSET = 100_000_000L;
+
+    @Autowired JdbcTemplate jdbcTemplate;
+    @Autowired EntityManager em;
+    @Autowired MemberRepository memberRepository;
+
+    @BeforeAll
+    void insertRows() {
+        List<Object[]> batch = new ArrayList<>(10_000);
+        for (int i = 0; i < ROWS; i++) {
+            String username = i < DUPLICATES ? "bench_dup" : "bench_user_" + i;
+            batch.add(new Object[]{ID_OFFSET + i, username});
+            if (batch.size() == 10_000) {
+                jdbcTemplate.batchUpdate("insert into member (id, username) values (?, ?)", batch);
+                batch.clear();
+            }
+        }
+    }
+
+    @Test
+    void lookup() {
+        jdbcTemplate.execute("drop index idx_member_username");
+        measure("[인덱스 없음] 기존 find (전체 로딩)", () -> legacyFind("bench_dup").isPresent());
+        measure("[인덱스 없음] find (limit 1)", () -> memberRepository.find("bench_dup").isPresent());
+        measure("[인덱스 없음] exists", () -> memberRepository.exists("bench_dup"));
+
+        jdbcTemplate.execute("create index idx_member_username on member (username)");
+        measure("[인덱스] 기존 find (전체 로딩)", () -> legacyFind("bench_dup").isPresent());
+        measure("[인덱스] find (limit 1)", () -> memberRepository.find("bench_dup").isPresent());
+        measure("[인덱스] exists", () -> memberRepository.exists("bench_dup"));
+        measure("[인덱스] exists (단건)", () -> memberRepository.exists("bench_user_" + (ROWS - 1)));
+    }
+
+    private Optional<Member> legacyFind(String username) {
+        return em.createQuery("select m from Member m where m.username=:username", Member.class)
+                .setParameter("username", username)
+                .getResultList().stream().findAny();
+    }
+
+    private void measure(String name, Supplier<Boolean> lookup) {
+        assertTrue(lookup.get()); // warm up
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            assertTrue(lookup.get());
+            em.clear();
+        }
+        long avgMicros = (System.nanoTime() - start) / ITERATIONS / 1_000;
+        log.info("{} avg={}us", name, avgMicros);
+    }
+}
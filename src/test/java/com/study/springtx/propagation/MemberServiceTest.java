@@ -154,4 +154,41 @@ class MemberServiceTest {
         assertTrue(memberRepository.find(username).isPresent());
         assertTrue(logRepository.find(username).isEmpty());
     }
-}
\ No newline at end of file
+
+    /**
+     * recoverException_success 와 같은 결과를 REQUIRES_NEW 대신 savepoint 로
+     * MemberService    @Transactional:ON
+     * MemberRepository @Transactional:ON
+     * LogRepository    @Transactional(NESTED)
+     */
+    @Test
+    void nested_success() {
+        // given
+        String username = "nested_success";
+
+        // when
+        memberService.joinV3(username);
+
+        // then: 회원, 로그 모두 저장
+        assertTrue(memberRepository.find(username).isPresent());
+        assertTrue(logRepository.find(username).isPresent());
+    }
+
+    /**
+     * MemberService    @Transactional:ON
+     * MemberRepository @Transactional:ON
+     * LogRepository    @Transactional(NESTED) Exception
+     */
+    @Test
+    void nested_recoverException() {
+        // given
+        String username = "로그예외_nested_recoverException";
+
+        // when
+        memberService.joinV3(username);
+
+        // then: savepoint 까지만 롤백 -> member 저장, log 롤백
+        assertTrue(memberRepository.find(username).isPresent());
+        assertTrue(logRepository.find(username).isEmpty());
+    }
+}
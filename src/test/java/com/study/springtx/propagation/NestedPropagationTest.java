@@ -0,0 +1,74 @@
+package com.study.springtx.propagation;
+
+import com.study.springtx.common.JdbcCounter;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 로그 저장 실패를 복구하는 가입: REQUIRES_NEW vs NESTED(savepoint)
+ * - REQUIRES_NEW: 가입마다 커넥션 2개, 커밋 2번
+ * - NESTED: 같은 커넥션의 savepoint, 커밋 1번
+ * - 처리 시간 비교는 PropagationBenchmark (./gradlew jmh)
+ */
+@Slf4j
+@SpringBootTest(properties = "springtx.member.cache.enabled=false")
+@Import(JdbcCounter.class)
+class NestedPropagationTest {
+
+    static final int JOINS = 20;
+
+    @Autowired MemberService memberService;
+    @Autowired MemberRepository memberRepository;
+    @Autowired LogRepository logRepository;
+    @Autowired PlatformTransactionManager txManager;
+    @Autowired JdbcCounter counter;
+
+    @Test
+    void fewerConnectionsThanRequiresNew() {
+        // given
+        TransactionTemplate outer = new TransactionTemplate(txManager);
+        TransactionTemplate requiresNew = new TransactionTemplate(txManager);
+        requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        // when
+        long requiresNewConnections = connections("requiresNew", username -> outer.executeWithoutResult(status -> {
+            memberRepository.save(new Member(username));
+            try {
+                requiresNew.executeWithoutResult(inner -> logRepository.save(new Log(username)));
+            } catch (RuntimeException e) {
+                log.info("log 저장에 실패했습니다. logMessage={}", username);
+            }
+        }));
+        long nestedConnections = connections("nested", memberService::joinV3);
+
+        // then: 결과는 같고, 사용한 커넥션은 NESTED 가 적다.
+        assertThat(memberRepository.find("로그예외_requiresNew_0")).isPresent();
+        assertThat(logRepository.find("로그예외_requiresNew_0")).isEmpty();
+        assertThat(memberRepository.find("로그예외_nested_0")).isPresent();
+        assertThat(logRepository.find("로그예외_nested_0")).isEmpty();
+        assertThat(logRepository.find("nested_1")).isPresent();
+        assertThat(nestedConnections).isLessThan(requiresNewConnections);
+    }
+
+    // 짝수 번째 가입은 로그 저장 실패
+    private long connections(String name, Consumer<String> join) {
+        counter.reset();
+        long start = System.nanoTime();
+        for (int i = 0; i < JOINS; i++) {
+            join.accept(i % 2 == 0 ? "로그예외_" + name + "_" + i : name + "_" + i);
+        }
+        long elapsedMicros = (System.nanoTime() - start) / 1_000 / JOINS;
+        log.info("{}: connections={}, avg latency={}us", name, counter.connections(), elapsedMicros);
+        return counter.connections();
+    }
+}
@@ -0,0 +1,153 @@
+package com.study.springtx.tx;
+
+import com.study.springtx.propagation.LogRepository;
+import com.study.springtx.propagation.MemberRepository;
+import com.study.springtx.propagation.MemberService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.StatementCallback;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionTimedOutException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import java.sql.SQLTimeoutException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 요청의 시간 예산(Deadline)을 트랜잭션 timeout 과 SQL query timeout 으로 사용
+ * - REQUIRES_NEW 로 시작한 내부 트랜잭션도 남은 예산을 넘지 않는다.
+ * - 예산을 다 쓰면 트랜잭션을 시작하지 않는다.
+ */
+@SpringBootTest(properties = "springtx.member.cache.enabled=false")
+@AutoConfigureMockMvc
+class DeadlineTest {
+
+    @Autowired MemberService memberService;
+    @Autowired MemberRepository memberRepository;
+    @Autowired LogRepository logRepository;
+    @Autowired PlatformTransactionManager txManager;
+    @Autowired EntityManagerFactory emf;
+    @Autowired JdbcTemplate jdbcTemplate;
+    @Autowired MockMvc mockMvc;
+
+    @Test
+    void refuseWhenBudgetGone() {
+        // when
+        try (Deadline.Scope scope = Deadline.open(Duration.ZERO)) {
+            assertThatThrownBy(() -> memberService.joinV1("deadline_expired"))
+                    .isInstanceOf(TransactionTimedOutException.class);
+        }
+
+        // then
+        assertThat(Deadline.current()).isNull();
+        assertThat(memberRepository.find("deadline_expired")).isEmpty();
+    }
+
+    @Test
+    void timeoutFromRemainingBudget() {
+        // given
+        TransactionTemplate outer = new TransactionTemplate(txManager);
+        TransactionTemplate requiresNew = new TransactionTemplate(txManager);
+        requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        requiresNew.setTimeout(10);
+        TransactionTemplate shorter = new TransactionTemplate(txManager);
+        shorter.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        shorter.setTimeout(1);
+
+        // when
+        try (Deadline.Scope scope = Deadline.open(Duration.ofSeconds(3))) {
+            outer.executeWithoutResult(status -> {
+                // then: 남은 예산이 timeout, 더 짧은 @Transactional(timeout) 은 유지
+                assertThat(entityManagerHolder().getTimeToLiveInSeconds()).isBetween(1, 3);
+                requiresNew.executeWithoutResult(inner ->
+                        assertThat(entityManagerHolder().getTimeToLiveInSeconds()).isBetween(1, 3));
+                shorter.executeWithoutResult(inner ->
+                        assertThat(entityManagerHolder().getTimeToLiveInSeconds()).isEqualTo(1));
+            });
+        }
+
+        // then: 범위 밖은 timeout 없음
+        outer.executeWithoutResult(status -> assertThat(entityManagerHolder().hasTimeout()).isFalse());
+    }
+
+    @Test
+    void statementTimeoutOutsideTransaction() {
+        // when
+        int queryTimeout;
+        try (Deadline.Scope scope = Deadline.open(Duration.ofSeconds(5))) {
+            queryTimeout = jdbcTemplate.execute((StatementCallback<Integer>) statement -> {
+                statement.execute("select 1");
+                return statement.getQueryTimeout();
+            });
+        }
+
+        // then
+        assertThat(queryTimeout).isBetween(1, 5);
+        try (Deadline.Scope scope = Deadline.open(Duration.ZERO)) {
+            assertThatThrownBy(() -> jdbcTemplate.queryForObject("select 1", Integer.class))
+                    .isInstanceOf(QueryTimeoutException.class);
+        }
+    }
+
+    /**
+     * 기본 설정(springtx.tx.deadline.enabled=true)에서 트랜잭션 밖의 repository 조회에도 남은 예산을 적용
+     */
+    @Test
+    void statementTimeoutForRepositoryOutsideTransaction() {
+        // given: Bloom filter 가 건너뛰지 않도록 저장된 회원
+        memberService.joinV1("deadline_repository");
+
+        // when: 트랜잭션 없이 조회
+        try (Deadline.Scope scope = Deadline.open(Duration.ZERO)) {
+            assertThatThrownBy(() -> memberRepository.find("deadline_repository"))
+                    .hasRootCauseInstanceOf(SQLTimeoutException.class);
+            assertThatThrownBy(() -> logRepository.find("deadline_repository"))
+                    .hasRootCauseInstanceOf(SQLTimeoutException.class);
+        }
+
+        // then: 범위 밖에서는 그대로 조회
+        assertThat(memberRepository.find("deadline_repository")).isPresent();
+    }
+
+    @Test
+    void deadlineHeader() throws Exception {
+        // 예산을 다 쓴 요청은 504
+        mockMvc.perform(post("/members").header("X-Request-Timeout", "0")
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"username\":\"deadline_http_expired\"}"))
+                .andExpect(status().isGatewayTimeout());
+
+        // 해석할 수 없는 값은 400
+        mockMvc.perform(post("/members").header("X-Request-Timeout", "soon")
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"username\":\"deadline_http_invalid\"}"))
+                .andExpect(status().isBadRequest());
+
+        // 예산 안에서 처리
+        mockMvc.perform(post("/members").header("X-Request-Timeout", "2s")
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"username\":\"deadline_http\"}"))
+                .andExpect(status().isCreated());
+
+        // then
+        assertThat(Deadline.current()).isNull();
+        assertThat(memberRepository.find("deadline_http_expired")).isEmpty();
+        assertThat(memberRepository.find("deadline_http")).isPresent();
+    }
+
+    private EntityManagerHolder entityManagerHolder() {
+        return (EntityManagerHolder) TransactionSynchronizationManager.getResource(emf);
+    }
+}
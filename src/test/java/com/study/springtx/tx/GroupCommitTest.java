@@ -0,0 +1,266 @@
+package com.study.springtx.tx;
+
+import com.study.springtx.common.JdbcCounter;
+import com.study.springtx.propagation.Log;
+import com.study.springtx.propagation.LogRepository;
+import com.study.springtx.propagation.Member;
+import com.study.springtx.propagation.MemberCache;
+import com.study.springtx.propagation.MemberRepository;
+import com.study.springtx.propagation.MemberService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionTimedOutException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 동시에 들어온 가입 요청을 하나의 트랜잭션으로 커밋
+ * - 요청별 savepoint: 로그 저장 실패(로그예외)는 해당 요청만 롤백
+ */
+@Slf4j
+@SpringBootTest(properties = {
+        "springtx.tx.group-commit.enabled=true",
+        "springtx.tx.group-commit.max-group-size=8",
+        "springtx.tx.group-commit.max-wait=200ms"
+})
+@Import(JdbcCounter.class)
+class GroupCommitTest {
+
+    static final int THREADS = 8;
+
+    @Autowired MemberService memberService;
+    @Autowired MemberRepository memberRepository;
+    @Autowired LogRepository logRepository;
+    @Autowired MemberCache memberCache;
+    @Autowired PlatformTransactionManager txManager;
+    @Autowired EntityManager em;
+    @Autowired JdbcCounter counter;
+    @Autowired GroupCommitExecutor groupCommitExecutor;
+    @Autowired EntityManagerFactory emf;
+
+    @Test
+    void joinGrouped() throws Exception {
+        // given: 1 건은 로그 저장 실패
+        List<String> usernames = new ArrayList<>();
+        for (int i = 0; i < THREADS - 1; i++) {
+            usernames.add("group_" + i);
+        }
+        usernames.add("로그예외_group");
+
+        // when: 동시에 가입
+        counter.reset();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (String username : usernames) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                memberService.joinGrouped(username);
+                return null;
+            }));
+        }
+        start.countDown();
+
+        int failures = 0;
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                failures++;
+            }
+        }
+        executor.shutdown();
+        long connections = counter.connections();
+
+        // then: 실패한 요청만 롤백
+        assertThat(failures).isEqualTo(1);
+        for (int i = 0; i < THREADS - 1; i++) {
+            assertThat(memberRepository.find("group_" + i)).isPresent();
+            assertThat(logRepository.find("group_" + i)).isPresent();
+        }
+        assertThat(memberRepository.find("로그예외_group")).isEmpty();
+        assertThat(logRepository.find("로그예외_group")).isEmpty();
+        assertThat(memberCache.get("로그예외_group")).isEmpty(); // 롤백된 요청의 afterCommit 은 실행되지 않음
+
+        // 요청마다 커밋했다면 요청 수만큼 커넥션을 사용
+        log.info("connections={}", connections);
+        assertThat(connections).isLessThan(THREADS);
+    }
+
+    /**
+     * 요청의 Deadline 은 그룹 커밋 쓰레드로 전달된다.
+     * - 예산을 다 쓴 요청은 실행하지 않고, 남은 예산은 공유 트랜잭션의 timeout 이 된다.
+     */
+    @Test
+    void deadlineCarriedToGroup() {
+        // when: 예산을 다 쓴 요청
+        try (Deadline.Scope scope = Deadline.open(Duration.ZERO)) {
+            assertThatThrownBy(() -> memberService.joinGrouped("group_deadline_expired"))
+                    .isInstanceOf(TransactionTimedOutException.class);
+        }
+
+        // when: 남은 예산 2초
+        Integer timeToLive;
+        try (Deadline.Scope scope = Deadline.open(Duration.ofSeconds(2))) {
+            timeToLive = groupCommitExecutor.execute(status -> {
+                EntityManagerHolder holder = (EntityManagerHolder) TransactionSynchronizationManager.getResource(emf);
+                return holder.getTimeToLiveInSeconds();
+            });
+        }
+
+        // then
+        assertThat(memberRepository.find("group_deadline_expired")).isEmpty();
+        assertThat(timeToLive).isBetween(1, 2);
+    }
+
+    /**
+     * 그룹 트랜잭션이 끝나지 않아도 종료는 shutdownTimeout 안에 끝나고, 기다리던 호출자는 예외를 받는다.
+     */
+    @Test
+    void stopWithHangingGroup() throws Exception {
+        // given: 그룹 크기 1, 첫 요청은 끝나지 않음
+        GroupCommitProperties properties = new GroupCommitProperties();
+        properties.setEnabled(true);
+        properties.setMaxGroupSize(1);
+        properties.setShutdownTimeout(Duration.ofMillis(200));
+        GroupCommitExecutor executor = new GroupCommitExecutor(txManager, properties, new SimpleMeterRegistry());
+        executor.start();
+
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch never = new CountDownLatch(1);
+        CompletableFuture<Object> hanging = new CompletableFuture<>();
+        Thread first = submit(executor, status -> {
+            entered.countDown();
+            try {
+                never.await();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            return null;
+        }, hanging);
+        assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<Object> queued = new CompletableFuture<>();
+        Thread second = submit(executor, status -> "queued", queued);
+        // 큐에 넣고 결과를 기다리는 상태 (큐 락을 잠깐 기다리는 경우와 구분하기 위해 잠시 후 다시 확인)
+        do {
+            Thread.sleep(50);
+        } while (second.getState() != Thread.State.WAITING && !queued.isDone());
+
+        // when
+        long start = System.nanoTime();
+        executor.stop();
+
+        // then
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(5));
+        assertThatThrownBy(() -> hanging.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> queued.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(IllegalStateException.class);
+        first.join(5_000);
+        second.join(5_000);
+    }
+
+    private static Thread submit(GroupCommitExecutor executor, TransactionCallback<Object> action,
+                                 CompletableFuture<Object> result) {
+        Thread thread = new Thread(() -> {
+            try {
+                result.complete(executor.execute(action));
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        });
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * JPA 에서 NESTED: 안쪽에서 참여한 트랜잭션이 실패해도 savepoint 까지만 롤백하고 바깥 트랜잭션은 커밋
+     */
+    @Test
+    void nestedSavepoint() {
+        // given
+        TransactionTemplate outer = new TransactionTemplate(txManager);
+        TransactionTemplate nested = new TransactionTemplate(txManager);
+        nested.setPropagationBehavior(TransactionDefinition.PROPAGATION_NESTED);
+        Member kept = new Member("nested_outer");
+        Member rolledBack = new Member("nested_inner");
+
+        // when
+        outer.executeWithoutResult(status -> {
+            memberRepository.save(kept);
+            assertThatThrownBy(() -> nested.executeWithoutResult(nestedStatus -> {
+                memberRepository.save(rolledBack);
+                kept.setUsername("nested_outer_changed");
+                em.flush();
+                logRepository.save(new Log("로그예외_nested"));
+            })).isInstanceOf(RuntimeException.class);
+
+            // then: 영속성 컨텍스트도 savepoint 시점으로 되돌림
+            assertThat(em.contains(rolledBack)).isFalse();
+            assertThat(kept.getUsername()).isEqualTo("nested_outer");
+        });
+
+        // then
+        assertThat(memberRepository.find("nested_outer")).isPresent();
+        assertThat(memberRepository.find("nested_outer_changed")).isEmpty();
+        assertThat(memberRepository.find("nested_inner")).isEmpty();
+        assertThat(logRepository.find("로그예외_nested")).isEmpty();
+    }
+
+    /**
+     * NESTED 안에서 삭제(remove)한 엔티티는 savepoint 롤백 후 다시 관리된다. (flush 여부와 관계없이)
+     */
+    @Test
+    void nestedSavepointRemove() {
+        // given
+        TransactionTemplate outer = new TransactionTemplate(txManager);
+        TransactionTemplate nested = new TransactionTemplate(txManager);
+        nested.setPropagationBehavior(TransactionDefinition.PROPAGATION_NESTED);
+        Member flushed = new Member("nested_remove_flushed");
+        Member unflushed = new Member("nested_remove_unflushed");
+
+        // when
+        outer.executeWithoutResult(status -> {
+            memberRepository.save(flushed);
+            memberRepository.save(unflushed);
+            nested.executeWithoutResult(nestedStatus -> {
+                em.remove(flushed);
+                em.flush();
+                em.remove(unflushed);
+                nestedStatus.setRollbackOnly();
+            });
+
+            // then: 같은 인스턴스를 다시 관리하고, 변경도 반영된다.
+            assertThat(em.contains(flushed)).isTrue();
+            assertThat(em.contains(unflushed)).isTrue();
+            flushed.setUsername("nested_remove_flushed_changed");
+        });
+
+        // then
+        assertThat(memberRepository.find("nested_remove_flushed_changed")).isPresent();
+        assertThat(memberRepository.find("nested_remove_unflushed")).isPresent();
+    }
+}
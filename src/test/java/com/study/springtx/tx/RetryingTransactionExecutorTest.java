@@ -0,0 +1,85 @@
+package com.study.springtx.tx;
+
+import com.study.springtx.order.Order;
+import com.study.springtx.order.OrderRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 낙관적 락 충돌 시 트랜잭션 재시도
+ */
+@SpringBootTest
+class RetryingTransactionExecutorTest {
+
+    @Autowired RetryingTransactionExecutor executor;
+    @Autowired OrderRepository orderRepository;
+    @Autowired PlatformTransactionManager txManager;
+    @Autowired TransactionTemplate txTemplate;
+
+    @Test
+    void retryOnOptimisticLock() {
+        // given
+        Long orderId = saveOrder();
+        AtomicInteger attempts = new AtomicInteger();
+
+        // when: 첫 시도 중에 다른 트랜잭션이 같은 주문을 먼저 변경
+        executor.execute(status -> {
+            Order order = orderRepository.findById(orderId).get();
+            if (attempts.incrementAndGet() == 1) {
+                changeInOtherTx(orderId, "다른 트랜잭션");
+            }
+            order.setPayStatus("완료");
+            return null;
+        });
+
+        // then: 두 번째 시도에서 최신 버전을 읽어 성공
+        assertThat(attempts.get()).isEqualTo(2);
+        assertThat(orderRepository.findById(orderId).get().getPayStatus()).isEqualTo("완료");
+    }
+
+    /**
+     * 외부 트랜잭션에 참여한 경우에는 재시도하지 않고, 외부 트랜잭션 전체가 실패한다.
+     */
+    @Test
+    void noRetryInJoinedTx() {
+        // given
+        Long orderId = saveOrder();
+        AtomicInteger attempts = new AtomicInteger();
+
+        // when
+        assertThatThrownBy(() -> txTemplate.executeWithoutResult(outer -> executor.execute(status -> {
+            attempts.incrementAndGet();
+            Order order = orderRepository.findById(orderId).get();
+            changeInOtherTx(orderId, "다른 트랜잭션");
+            order.setPayStatus("완료");
+            return null;
+        }))).isInstanceOf(OptimisticLockingFailureException.class);
+
+        // then
+        assertThat(attempts.get()).isEqualTo(1);
+    }
+
+    private Long saveOrder() {
+        Order order = new Order();
+        order.setUsername("정상");
+        order.setPayStatus("대기");
+        orderRepository.save(order);
+        return order.getId();
+    }
+
+    private void changeInOtherTx(Long orderId, String payStatus) {
+        TransactionTemplate requiresNew = new TransactionTemplate(txManager);
+        requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        requiresNew.executeWithoutResult(status -> orderRepository.findById(orderId).get().setPayStatus(payStatus));
+    }
+}
@@ -0,0 +1,81 @@
+package com.study.springtx.tx;
+
+import com.study.springtx.propagation.MemberService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.UnexpectedRollbackException;
+import org.springframework.transaction.interceptor.DefaultTransactionAttribute;
+import org.springframework.transaction.support.ResourceTransactionManager;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 트랜잭션 매니저 메트릭
+ */
+@Slf4j
+@SpringBootTest
+class TxMetricsTest {
+
+    static final String JOIN_V1 = "com.study.springtx.propagation.MemberService.joinV1";
+
+    @Autowired PlatformTransactionManager txManager;
+    @Autowired MemberService memberService;
+    @Autowired MeterRegistry meterRegistry;
+    @Autowired EntityManagerFactory emf;
+
+    @Test
+    void decorated() {
+        assertThat(txManager).isInstanceOf(MeteredTransactionManager.class);
+        assertThat(((ResourceTransactionManager) txManager).getResourceFactory()).isSameAs(emf);
+    }
+
+    @Test
+    void timersPerMethod() {
+        // when
+        memberService.joinV1("timersPerMethod");
+
+        // then
+        Timer begin = meterRegistry.find("springtx.tx.begin")
+                .tags("method", JOIN_V1, "propagation", "REQUIRED", "new", "true").timer();
+        Timer commit = meterRegistry.find("springtx.tx.commit")
+                .tags("method", JOIN_V1, "outcome", "committed").timer();
+        assertThat(begin).isNotNull();
+        assertThat(begin.count()).isGreaterThanOrEqualTo(1);
+        assertThat(commit).isNotNull();
+        assertThat(meterRegistry.find("springtx.tx.body").tags("method", JOIN_V1).timer()).isNotNull();
+    }
+
+    /**
+     * BasicTxTest.inner_rollback 상황: 내부 트랜잭션 롤백(rollback-only 표시) 후 외부 커밋
+     */
+    @Test
+    void unexpectedRollback() {
+        // given
+        double before = unexpectedRollbackCount();
+        TransactionStatus outerStatus = txManager.getTransaction(new DefaultTransactionAttribute());
+        TransactionStatus innerStatus = txManager.getTransaction(new DefaultTransactionAttribute());
+        txManager.rollback(innerStatus);
+
+        // when
+        assertThatThrownBy(() -> txManager.commit(outerStatus))
+                .isInstanceOf(UnexpectedRollbackException.class);
+
+        // then
+        assertThat(unexpectedRollbackCount()).isEqualTo(before + 1);
+    }
+
+    private double unexpectedRollbackCount() {
+        Counter counter = meterRegistry.find("springtx.tx.unexpected.rollback").counter();
+        return counter == null ? 0 : counter.count();
+    }
+}
@@ -0,0 +1,99 @@
+package com.study.springtx.tx;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * 카테고리(logger 이름 prefix)마다 다른 비율로 샘플링하고, 가장 긴 prefix 의 비율을 사용한다.
+ */
+class TxSamplingTurboFilterTest {
+
+    private static final int TRANSACTIONS = 10_000;
+
+    private final LoggerContext loggerContext = new LoggerContext();
+    private TxSamplingTurboFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new TxSamplingTurboFilter();
+        filter.addCategory(category("com.example.app", 0.8));
+        filter.addCategory(category("com.example.sql", 0.2));
+        filter.addCategory(category("com.example.app.noisy", 0));
+        filter.start();
+    }
+
+    @AfterEach
+    void clearMdc() {
+        MDC.remove(TracingTransactionManager.MDC_TX_ID);
+    }
+
+    @Test
+    void sampleRatePerCategory() {
+        // when
+        double app = keptRatio("com.example.app.OrderService", Level.INFO);
+        double sql = keptRatio("com.example.sql.Statements", Level.DEBUG);
+
+        // then
+        assertThat(app).isCloseTo(0.8, within(0.03));
+        assertThat(sql).isCloseTo(0.2, within(0.03));
+    }
+
+    @Test
+    void longestPrefixWins() {
+        // when: com.example.app(0.8) 보다 com.example.app.noisy(0) 가 더 구체적
+        double noisy = keptRatio("com.example.app.noisy.Poller", Level.INFO);
+
+        // then
+        assertThat(noisy).isZero();
+    }
+
+    @Test
+    void keepOutsideCategoriesAndWarn() {
+        // then: 카테고리 밖이거나 maxLevel(INFO) 보다 높은 로그는 항상 남김
+        assertThat(keptRatio("org.example.Other", Level.INFO)).isEqualTo(1.0);
+        assertThat(keptRatio("com.example.app.noisy.Poller", Level.WARN)).isEqualTo(1.0);
+    }
+
+    @Test
+    void sameDecisionWithinTransaction() {
+        // given
+        ch.qos.logback.classic.Logger logger = loggerContext.getLogger("com.example.sql.Statements");
+        MDC.put(TracingTransactionManager.MDC_TX_ID, "2a");
+
+        // when
+        FilterReply first = filter.decide(null, logger, Level.DEBUG, "select", null, null);
+
+        // then: 같은 트랜잭션의 로그는 모두 남거나 모두 버린다.
+        for (int i = 0; i < 100; i++) {
+            assertThat(filter.decide(null, logger, Level.DEBUG, "select", null, null)).isEqualTo(first);
+        }
+    }
+
+    // 트랜잭션마다 로그 1건을 남겼을 때 남은 비율
+    private double keptRatio(String loggerName, Level level) {
+        ch.qos.logback.classic.Logger logger = loggerContext.getLogger(loggerName);
+        int kept = 0;
+        for (int i = 0; i < TRANSACTIONS; i++) {
+            MDC.put(TracingTransactionManager.MDC_TX_ID, Long.toHexString(i + 1)); // TracingTransactionManager 의 txId 형식
+            if (filter.decide(null, logger, level, "message", null, null) == FilterReply.NEUTRAL) {
+                kept++;
+            }
+        }
+        return (double) kept / TRANSACTIONS;
+    }
+
+    private static TxSamplingTurboFilter.Category category(String prefix, double sampleRate) {
+        TxSamplingTurboFilter.Category category = new TxSamplingTurboFilter.Category();
+        category.setPrefix(prefix);
+        category.setSampleRate(sampleRate);
+        return category;
+    }
+}
@@ -0,0 +1,56 @@
+package com.study.springtx.tx;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 물리 트랜잭션마다 MDC 에 txId/깊이/전파 옵션을 기록
+ * - 참여하는 트랜잭션은 같은 txId, REQUIRES_NEW 는 새 txId 와 바깥 트랜잭션 ID(txParentId)
+ */
+@SpringBootTest
+class TxTracingTest {
+
+    @Autowired PlatformTransactionManager txManager;
+
+    @Test
+    void traceContext() {
+        // given
+        TransactionTemplate outer = new TransactionTemplate(txManager);
+        TransactionTemplate required = new TransactionTemplate(txManager);
+        TransactionTemplate requiresNew = new TransactionTemplate(txManager);
+        requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        outer.executeWithoutResult(outerStatus -> {
+            String outerTxId = MDC.get(TracingTransactionManager.MDC_TX_ID);
+            assertThat(outerTxId).isNotNull();
+            assertThat(MDC.get(TracingTransactionManager.MDC_TX_DEPTH)).isEqualTo("1");
+            assertThat(MDC.get(TracingTransactionManager.MDC_TX_PARENT_ID)).isNull();
+
+            // 참여
+            required.executeWithoutResult(innerStatus ->
+                    assertThat(MDC.get(TracingTransactionManager.MDC_TX_ID)).isEqualTo(outerTxId));
+
+            // 새 물리 트랜잭션
+            requiresNew.executeWithoutResult(innerStatus -> {
+                assertThat(MDC.get(TracingTransactionManager.MDC_TX_ID)).isNotEqualTo(outerTxId);
+                assertThat(MDC.get(TracingTransactionManager.MDC_TX_PARENT_ID)).isEqualTo(outerTxId);
+                assertThat(MDC.get(TracingTransactionManager.MDC_TX_DEPTH)).isEqualTo("2");
+                assertThat(MDC.get(TracingTransactionManager.MDC_TX_PROPAGATION)).isEqualTo("REQUIRES_NEW");
+            });
+
+            // 내부 트랜잭션이 끝나면 바깥 트랜잭션으로 복원
+            assertThat(MDC.get(TracingTransactionManager.MDC_TX_ID)).isEqualTo(outerTxId);
+            assertThat(MDC.get(TracingTransactionManager.MDC_TX_DEPTH)).isEqualTo("1");
+        });
+
+        // then
+        assertThat(MDC.get(TracingTransactionManager.MDC_TX_ID)).isNull();
+    }
+}
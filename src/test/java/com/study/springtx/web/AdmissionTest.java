@@ -0,0 +1,134 @@
+package com.study.springtx.web;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 동시 처리 요청 수를 제한하고, 대기열이 가득 차거나 대기 시간이 지나면 429 로 바로 거절
+ */
+@Slf4j
+@SpringBootTest(properties = {
+        "springtx.web.admission.permits=2",
+        "springtx.web.admission.queue-capacity=0",
+        "springtx.web.admission.max-wait=100ms",
+        "springtx.web.admission.retry-after=3s"
+})
+@AutoConfigureMockMvc
+class AdmissionTest {
+
+    @Autowired AdmissionGate gate;
+    @Autowired MockMvc mockMvc;
+
+    private int held;
+
+    @AfterEach
+    void release() {
+        for (; held > 0; held--) {
+            gate.exit();
+        }
+    }
+
+    @Test
+    void admitted() throws Exception {
+        mockMvc.perform(post("/orders").contentType(MediaType.APPLICATION_JSON).content("{\"username\":\"정상\"}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.payStatus").value("완료"));
+        mockMvc.perform(post("/orders").contentType(MediaType.APPLICATION_JSON).content("{\"username\":\"잔고부족\"}"))
+                .andExpect(status().isPaymentRequired())
+                .andExpect(jsonPath("$.payStatus").value("대기"));
+        mockMvc.perform(post("/members").contentType(MediaType.APPLICATION_JSON).content("{\"username\":\"admission\"}"))
+                .andExpect(status().isCreated());
+
+        // 처리 후 permit 반환
+        assertThat(gate.tryEnter()).isTrue();
+        held++;
+        assertThat(gate.tryEnter()).isTrue();
+        held++;
+    }
+
+    @Test
+    void rejectedWhenSaturated() throws Exception {
+        // given: 처리 중인 요청이 permits 만큼 있음
+        for (int i = 0; i < gate.getPermits(); i++) {
+            assertThat(gate.tryEnter()).isTrue();
+            held++;
+        }
+
+        // when
+        mockMvc.perform(post("/members").contentType(MediaType.APPLICATION_JSON).content("{\"username\":\"rejected\"}"))
+                // then
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "3"));
+        assertThat(gate.getWaiting()).isZero();
+    }
+
+    @Test
+    void admittedAfterRelease() throws Exception {
+        // given: queue-capacity=0 이면 대기 없이 거절
+        for (int i = 0; i < gate.getPermits(); i++) {
+            assertThat(gate.tryEnter()).isTrue();
+            held++;
+        }
+        assertThat(gate.tryEnter()).isFalse();
+
+        // when: permit 이 반환되면 다시 수락
+        gate.exit();
+        held--;
+
+        // then
+        assertThat(gate.tryEnter()).isTrue();
+        held++;
+    }
+
+    @Test
+    void queuedRequestNotOvertaken() throws Exception {
+        // given: permit 1개, 대기열 1개
+        AdmissionProperties properties = new AdmissionProperties();
+        properties.setPermits(1);
+        properties.setQueueCapacity(1);
+        properties.setMaxWait(Duration.ofSeconds(1));
+        AdmissionGate queued = new AdmissionGate(properties, null, new SimpleMeterRegistry());
+        assertThat(queued.tryEnter()).isTrue();
+
+        CompletableFuture<Boolean> waiter = new CompletableFuture<>();
+        Thread thread = new Thread(() -> {
+            try {
+                waiter.complete(queued.tryEnter());
+            } catch (Throwable e) {
+                waiter.completeExceptionally(e);
+            }
+        });
+        thread.start();
+        while (thread.getState() != Thread.State.TIMED_WAITING && !waiter.isDone()) {
+            Thread.onSpinWait();
+        }
+        assertThat(queued.getWaiting()).isEqualTo(1);
+
+        // when: permit 이 반환된 직후 새 요청이 들어옴
+        queued.exit();
+        boolean newcomer = queued.tryEnter();
+
+        // then: 기다리던 요청이 permit 을 받고, 새 요청은 앞지르지 못한다.
+        assertThat(waiter.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(newcomer).isFalse();
+        queued.exit();
+    }
+}